@@ -20,13 +20,13 @@ const DashboardPage = () => {
   useEffect(() => {
     const fetchData = async () => {
       try {
-        await fetchAccounts();
-        const [statsRes, summaryRes] = await Promise.all([
-          transactionService.getTotalStats(),
-          transactionService.getAccountSummary(),
+        const [dashboardRes] = await Promise.all([
+          transactionService.getDashboard(),
+          fetchAccounts(),
         ]);
-        setStats(statsRes.data);
-        setAccountSummary(summaryRes.data);
+        setStats(dashboardRes.data.summary);
+        setAccountSummary(dashboardRes.data.accounts);
+        setRecentTransactions(dashboardRes.data.recentTransactions || []);
         setError('');
       } catch (err) {
         setError(err.response?.data?.message || 'Failed to load dashboard');
@@ -37,28 +37,6 @@ const DashboardPage = () => {
 
     fetchData();
   }, [fetchAccounts]);
-
-  // Fetch recent transactions for the first account
-  useEffect(() => {
-    const fetchRecentTransactions = async () => {
-      if (accounts.length > 0) {
-        try {
-          const res = await transactionService.getTransactionHistory(
-            accounts[0].id,
-            0,
-            10
-          );
-          // Handle paginated response
-          setRecentTransactions(res.data.content || res.data || []);
-        } catch (err) {
-          console.error('Failed to fetch recent transactions:', err);
-          setRecentTransactions([]);
-        }
-      }
-    };
-
-    fetchRecentTransactions();
-  }, [accounts]);
   // --- END OF ORIGINAL LOGIC/HOOKS (UNCHANGED) ---
 
   if (loading || accountsLoading) return <LoadingSpinner />;
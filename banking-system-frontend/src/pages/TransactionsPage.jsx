@@ -25,6 +25,7 @@ const TransactionsPage = () => {
   // NEW: State for transfer type selection
   const [transferType, setTransferType] = useState('self'); // 'self' or 'other'
   const [allAccounts, setAllAccounts] = useState([]);
+  const [recipientQuery, setRecipientQuery] = useState('');
 
   // Form states
   const [amount, setAmount] = useState('');
@@ -49,12 +50,12 @@ const TransactionsPage = () => {
       }
   }, [selectedAccount, activeTab, page]);
 
-  // Fetch all accounts when transfer tab is active
+  // Fetch recipients when transfer tab is active, debounced while typing
   useEffect(() => {
-    if (activeTab === 'transfer') {
-      fetchAllAccountsForTransfer();
-    }
-  }, [activeTab]);
+    if (activeTab !== 'transfer') return;
+    const timer = setTimeout(() => fetchRecipients(recipientQuery), 250);
+    return () => clearTimeout(timer);
+  }, [activeTab, recipientQuery]);
 
   const fetchTransactions = async () => {
     setLoading(true);
@@ -79,12 +80,12 @@ const TransactionsPage = () => {
     }
   };
 
-  const fetchAllAccountsForTransfer = async () => {
+  const fetchRecipients = async (query) => {
     try {
-      const res = await transactionService.getAllAccountsForTransfer();
-      setAllAccounts(res.data || []);
+      const res = await transactionService.searchRecipients(query, 0, 50);
+      setAllAccounts(res.data?.content || []);
     } catch (err) {
-      console.error('Error fetching all accounts:', err);
+      console.error('Error fetching recipients:', err);
       setError(err.response?.data?.message || 'Failed to load accounts');
     }
   };
@@ -524,6 +525,19 @@ const TransactionsPage = () => {
                         </div>
                     </div>
 
+                    {transferType === 'other' && (
+                        <div className="mb-3">
+                        <label className="form-label fw-medium">Search Recipient</label>
+                        <input
+                            type="text"
+                            className="form-control"
+                            value={recipientQuery}
+                            onChange={(e) => setRecipientQuery(e.target.value)}
+                            placeholder="Account or holder name"
+                        />
+                        </div>
+                    )}
+
                     {/* Conditional Dropdown based on transfer type */}
                     <div className="mb-3">
                         <label className="form-label fw-medium">
@@ -555,7 +569,7 @@ const TransactionsPage = () => {
                             .filter((acc) => acc.id !== selectedAccount)
                             .map((acc) => (
                                 <option key={acc.id} value={acc.id}>
-                                {acc.name} (ID: {acc.id}) - {formatCurrency(acc.balance)}
+                                {acc.name} - {acc.holderName} (ID: {acc.id})
                                 </option>
                             ))}
                         </select>
@@ -35,9 +35,12 @@ export const transactionService = {
   getTransactionDetails: (transactionId) =>
     api.get(`/transactions/${transactionId}`),
 
-  // NEW: Get all accounts for transfer recipients
-  getAllAccountsForTransfer: () =>
-    api.get('/accounts/all-for-transfer'),
+  // Other users' accounts for transfers, searched by account or holder name
+  searchRecipients: (q = '', page = 0, size = 20) =>
+    api.get('/accounts/recipients', { params: { q, page, size } }),
+
+  // Summary, account summaries and recent transactions in one call
+  getDashboard: () => api.get('/analytics/dashboard'),
 
   getTotalStats: () => api.get('/analytics/dashboard-summary'),
 
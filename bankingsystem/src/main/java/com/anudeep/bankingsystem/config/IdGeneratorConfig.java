@@ -0,0 +1,23 @@
+package com.anudeep.bankingsystem.config;
+
+import com.anudeep.bankingsystem.util.Snowflake;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    // Must be unique per running instance
+    @Value("${app.id.node-id:0}")
+    private int nodeId;
+
+    @PostConstruct
+    public void configure() {
+        Snowflake.configure(nodeId);
+        logger.info("Id generator configured with node id: {}", nodeId);
+    }
+}
@@ -0,0 +1,14 @@
+package com.anudeep.bankingsystem.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the @Scheduled jobs. They run on the pool sized by
+ * spring.task.scheduling.pool.size, so one slow job does not hold up the
+ * others; the outbox relay polls on a thread of its own.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,8 +1,11 @@
 package com.anudeep.bankingsystem.controller;
 
+import com.anudeep.bankingsystem.dto.PaginatedResponse;
 import com.anudeep.bankingsystem.dto.account.*;
 import com.anudeep.bankingsystem.service.AccountService;
+import com.anudeep.bankingsystem.service.UserDataVersions;
 import com.anudeep.bankingsystem.util.AuthenticationUtil;
+import com.anudeep.bankingsystem.util.ConditionalGet;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -12,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,6 +27,7 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService service;
+    private final UserDataVersions dataVersions;
 
     @PostMapping("/create")
     @Operation(summary = "Create new account", description = "Create a new bank account for the authenticated user")
@@ -36,19 +41,20 @@ public class AccountController {
 
     @GetMapping
     @Operation(summary = "List all accounts", description = "Get all accounts for the authenticated user")
-    public ResponseEntity<List<AccountResponse>> list(Authentication auth) {
+    public ResponseEntity<List<AccountResponse>> list(Authentication auth, WebRequest request) {
         Long userId = AuthenticationUtil.extractUserId(auth);
-        return ResponseEntity.ok(service.listForUser(userId));
+        return ConditionalGet.respond(request, dataVersions.etag(userId), () -> service.listForUser(userId));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get account details", description = "Get details of a specific account by ID")
     public ResponseEntity<AccountResponse> get(
             @PathVariable Long id,
-            Authentication auth
+            Authentication auth,
+            WebRequest request
     ) {
         Long userId = AuthenticationUtil.extractUserId(auth);
-        return ResponseEntity.ok(service.get(userId, id));
+        return ConditionalGet.respond(request, dataVersions.etag(userId), () -> service.get(userId, id));
     }
 
     @PutMapping("/{id}")
@@ -73,10 +79,47 @@ public class AccountController {
         return ResponseEntity.noContent().build();
     }
 
-    // NEW: Get all accounts for transfer recipients
+    @PutMapping("/{id}/balance-sharding")
+    @Operation(summary = "Enable balance sharding", description = "Spread incoming credits over several balance slots for a high-volume receiving account")
+    public ResponseEntity<AccountResponse> enableBalanceSharding(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "8") int slots,
+            Authentication auth
+    ) {
+        Long userId = AuthenticationUtil.extractUserId(auth);
+        return ResponseEntity.ok(service.enableBalanceSharding(userId, id, slots));
+    }
+
+    @DeleteMapping("/{id}/balance-sharding")
+    @Operation(summary = "Disable balance sharding", description = "Fold all balance slots back into the account and stop sharding credits")
+    public ResponseEntity<AccountResponse> disableBalanceSharding(
+            @PathVariable Long id,
+            Authentication auth
+    ) {
+        Long userId = AuthenticationUtil.extractUserId(auth);
+        return ResponseEntity.ok(service.disableBalanceSharding(userId, id));
+    }
+
+    @GetMapping("/recipients")
+    @Operation(summary = "Search transfer recipients", description = "Page through other users' accounts whose account or holder name starts with the query")
+    public ResponseEntity<PaginatedResponse<RecipientResponse>> recipients(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication auth
+    ) {
+        Long userId = AuthenticationUtil.extractUserId(auth);
+        return ResponseEntity.ok(service.searchRecipients(userId, q, page, size));
+    }
+
+    @Deprecated
     @GetMapping("/all-for-transfer")
-    @Operation(summary = "Get all accounts for transfer", description = "Get all accounts in system for transfer recipients")
+    @Operation(summary = "Get all accounts for transfer", deprecated = true,
+            description = "Deprecated, use /recipients. Returns at most 1000 accounts, without balances")
     public ResponseEntity<List<AccountResponse>> getAllAccountsForTransfer() {
-        return ResponseEntity.ok(service.getAllAccountsForTransfer());
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header("Link", "</api/accounts/recipients>; rel=\"successor-version\"")
+                .body(service.getAllAccountsForTransfer());
     }
 }
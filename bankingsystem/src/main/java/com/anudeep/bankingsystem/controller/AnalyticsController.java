@@ -2,15 +2,20 @@ package com.anudeep.bankingsystem.controller;
 
 import com.anudeep.bankingsystem.dto.analytics.*;
 import com.anudeep.bankingsystem.service.AnalyticsService;
+import com.anudeep.bankingsystem.service.UserDataVersions;
 import com.anudeep.bankingsystem.util.AuthenticationUtil;
+import com.anudeep.bankingsystem.util.ConditionalGet;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,35 +26,51 @@ import java.util.List;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final UserDataVersions dataVersions;
+
+    @GetMapping("/dashboard")
+    @Operation(summary = "Dashboard", description = "Get everything the dashboard shows in one call: summary, accounts and recent transactions")
+    public ResponseEntity<DashboardSnapshot> getDashboard(Authentication auth, WebRequest request) {
+        Long userId = AuthenticationUtil.extractUserId(auth);
+        return ConditionalGet.respond(request, dataVersions.etag(userId), () -> analyticsService.getDashboard(userId));
+    }
 
     @GetMapping("/dashboard-summary")
     @Operation(summary = "Dashboard summary", description = "Get overall financial summary including total balance, income, expenses, and transaction count")
-    public ResponseEntity<DashboardSummaryResponse> getDashboardSummary(Authentication auth) {
+    public ResponseEntity<DashboardSummaryResponse> getDashboardSummary(Authentication auth, WebRequest request) {
         Long userId = AuthenticationUtil.extractUserId(auth);
-        return ResponseEntity.ok(analyticsService.getDashboardSummary(userId));
+        return ConditionalGet.respond(request, dataVersions.etag(userId), () -> analyticsService.getDashboardSummary(userId));
     }
 
     @GetMapping("/spending-by-category")
-    @Operation(summary = "Spending by category", description = "Get breakdown of spending by transaction category with counts")
-    public ResponseEntity<SpendingByCategoryResponse> getSpendingByCategory(Authentication auth) {
+    @Operation(summary = "Spending by category", description = "Get breakdown of spending by transaction category with counts, optionally within [from, to) and for one account")
+    public ResponseEntity<SpendingByCategoryResponse> getSpendingByCategory(
+            Authentication auth,
+            WebRequest request,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long accountId
+    ) {
         Long userId = AuthenticationUtil.extractUserId(auth);
-        return ResponseEntity.ok(analyticsService.getSpendingByCategory(userId));
+        return ConditionalGet.respond(request, dataVersions.etag(userId),
+                () -> analyticsService.getSpendingByCategory(userId, from, to, accountId));
     }
 
     @GetMapping("/monthly-summary")
     @Operation(summary = "Monthly trends", description = "Get monthly income, expense, and net change trends (default: last 12 months)")
     public ResponseEntity<List<MonthlySummaryResponse>> getMonthlySummary(
             Authentication auth,
+            WebRequest request,
             @RequestParam(defaultValue = "12") int months
     ) {
         Long userId = AuthenticationUtil.extractUserId(auth);
-        return ResponseEntity.ok(analyticsService.getMonthlySummary(userId, months));
+        return ConditionalGet.respond(request, dataVersions.etag(userId), () -> analyticsService.getMonthlySummary(userId, months));
     }
 
     @GetMapping("/account-summary")
     @Operation(summary = "Account summary", description = "Get summary of all accounts with balances and transaction counts")
-    public ResponseEntity<List<AccountSummaryResponse>> getAccountSummary(Authentication auth) {
+    public ResponseEntity<List<AccountSummaryResponse>> getAccountSummary(Authentication auth, WebRequest request) {
         Long userId = AuthenticationUtil.extractUserId(auth);
-        return ResponseEntity.ok(analyticsService.getAccountSummary(userId));
+        return ConditionalGet.respond(request, dataVersions.etag(userId), () -> analyticsService.getAccountSummary(userId));
     }
 }
@@ -2,18 +2,28 @@ package com.anudeep.bankingsystem.controller;
 
 import com.anudeep.bankingsystem.dto.PaginatedResponse;
 import com.anudeep.bankingsystem.dto.transaction.*;
+import com.anudeep.bankingsystem.service.BatchPostingService;
+import com.anudeep.bankingsystem.service.TransactionExportService;
 import com.anudeep.bankingsystem.service.TransactionService;
+import com.anudeep.bankingsystem.service.UserDataVersions;
 import com.anudeep.bankingsystem.util.AuthenticationUtil;
+import com.anudeep.bankingsystem.util.ConditionalGet;
+import com.anudeep.bankingsystem.util.Idempotent;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -25,8 +35,12 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService service;
+    private final BatchPostingService batchService;
+    private final TransactionExportService exportService;
+    private final UserDataVersions dataVersions;
 
     @PostMapping("/deposit")
+    @Idempotent
     @Operation(summary = "Deposit funds", description = "Deposit money into an account")
     public ResponseEntity<TransactionResponse> deposit(
             @Valid @RequestBody TransactionRequest req,
@@ -37,6 +51,7 @@ public class TransactionController {
     }
 
     @PostMapping("/withdraw")
+    @Idempotent
     @Operation(summary = "Withdraw funds", description = "Withdraw money from an account")
     public ResponseEntity<TransactionResponse> withdraw(
             @Valid @RequestBody TransactionRequest req,
@@ -47,6 +62,7 @@ public class TransactionController {
     }
 
     @PostMapping("/transfer")
+    @Idempotent
     @Operation(summary = "Transfer funds", description = "Transfer money between two accounts")
     public ResponseEntity<TransactionResponse> transfer(
             @Valid @RequestBody TransactionRequest req,
@@ -56,22 +72,64 @@ public class TransactionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(service.transfer(userId, req));
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Batch posting", description = "Post many deposits, withdrawals and transfers in one request; returns a result per item")
+    public ResponseEntity<BatchTransactionResponse> batch(
+            @Valid @RequestBody BatchTransactionRequest req,
+            Authentication auth
+    ) {
+        Long userId = AuthenticationUtil.extractUserId(auth);
+        return ResponseEntity.ok(batchService.post(userId, req.getItems()));
+    }
+
     @GetMapping("/history")
     @Operation(summary = "Transaction history", description = "Get all transactions for the user (non-paginated)")
-    public ResponseEntity<List<TransactionResponse>> list(Authentication auth) {
+    public ResponseEntity<List<TransactionResponse>> list(Authentication auth, WebRequest request) {
         Long userId = AuthenticationUtil.extractUserId(auth);
-        return ResponseEntity.ok(service.listForUser(userId));
+        return ConditionalGet.respond(request, dataVersions.etag(userId), () -> service.listForUser(userId));
+    }
+
+    @GetMapping("/history/export")
+    @Operation(summary = "Export transaction history", description = "Stream the full history as NDJSON (default) or CSV without loading it into memory")
+    public ResponseEntity<StreamingResponseBody> export(
+            Authentication auth,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        Long userId = AuthenticationUtil.extractUserId(auth);
+        String f = TransactionExportService.normalizeFormat(format);
+        MediaType type = TransactionExportService.CSV.equals(f)
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.parseMediaType("application/x-ndjson");
+
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + f + "\"")
+                .body(out -> exportService.export(userId, f, out));
     }
 
     @GetMapping("/history/paginated")
     @Operation(summary = "Paginated transaction history", description = "Get transactions with pagination support (default: page 0, size 10)")
     public ResponseEntity<PaginatedResponse<TransactionResponse>> listPaginated(
             Authentication auth,
+            WebRequest request,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
         Long userId = AuthenticationUtil.extractUserId(auth);
-        return ResponseEntity.ok(service.listForUserPaginated(userId, page, size));
+        return ConditionalGet.respond(request, dataVersions.etag(userId), () -> service.listForUserPaginated(userId, page, size));
+    }
+
+    @GetMapping("/history/cursor")
+    @Operation(summary = "Cursor-paginated transaction history", description = "Get transactions newest first; pass nextCursor from the previous page to continue. Totals are only computed with includeTotal=true")
+    public ResponseEntity<PaginatedResponse<TransactionResponse>> listByCursor(
+            Authentication auth,
+            WebRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        Long userId = AuthenticationUtil.extractUserId(auth);
+        return ConditionalGet.respond(request, dataVersions.etag(userId), () -> service.listForUserByCursor(userId, cursor, size, includeTotal));
     }
 
     @GetMapping("/{id}")
@@ -85,7 +143,7 @@ public class TransactionController {
     }
 
     @PostMapping("/filter")
-    @Operation(summary = "Filter transactions", description = "Filter transactions by date range, category, type, and amount")
+    @Operation(summary = "Filter transactions", description = "Filter transactions by date range, category, type, and amount; returns at most the newest 500 matches, use /filter/cursor for more")
     public ResponseEntity<List<TransactionResponse>> filterTransactions(
             @RequestBody TransactionFilterRequest filter,
             Authentication auth
@@ -94,6 +152,18 @@ public class TransactionController {
         return ResponseEntity.ok(service.filterTransactions(userId, filter));
     }
 
+    @PostMapping("/filter/cursor")
+    @Operation(summary = "Filter transactions with cursor pagination", description = "Same filters as /filter, newest first; pass nextCursor from the previous page to continue")
+    public ResponseEntity<PaginatedResponse<TransactionResponse>> filterTransactionsByCursor(
+            @RequestBody TransactionFilterRequest filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            Authentication auth
+    ) {
+        Long userId = AuthenticationUtil.extractUserId(auth);
+        return ResponseEntity.ok(service.filterTransactionsByCursor(userId, filter, cursor, size));
+    }
+
     @GetMapping("/search")
     @Operation(summary = "Search transactions", description = "Search transactions by description or merchant name")
     public ResponseEntity<List<TransactionResponse>> search(
@@ -104,6 +174,18 @@ public class TransactionController {
         return ResponseEntity.ok(service.searchTransactions(userId, query));
     }
 
+    @GetMapping("/search/ranked")
+    @Operation(summary = "Ranked transaction search", description = "Search descriptions with best matches first (whole word, then word prefix, then substring), paginated")
+    public ResponseEntity<PaginatedResponse<TransactionResponse>> searchRanked(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication auth
+    ) {
+        Long userId = AuthenticationUtil.extractUserId(auth);
+        return ResponseEntity.ok(service.searchTransactionsRanked(userId, query, page, size));
+    }
+
     @GetMapping("/by-category/{category}")
     @Operation(summary = "Get transactions by category", description = "Get all transactions in a specific category")
     public ResponseEntity<List<TransactionResponse>> getByCategory(
@@ -19,4 +19,7 @@ public class PaginatedResponse<T> {
     private int totalPages;
     private boolean hasNext;
     private boolean hasPrevious;
+
+    // Keyset pages only: token for the next page (null on the last page); totals are -1 unless requested
+    private String nextCursor;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.anudeep.bankingsystem.dto.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceSnapshot {
+    private Long id;
+    private Long ownerId;
+    private BigDecimal balance;
+}
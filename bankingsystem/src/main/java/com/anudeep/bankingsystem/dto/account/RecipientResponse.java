@@ -0,0 +1,14 @@
+package com.anudeep.bankingsystem.dto.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientResponse {
+    private Long id;
+    private String name;
+    private String holderName;
+}
@@ -0,0 +1,15 @@
+package com.anudeep.bankingsystem.dto.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientRow {
+    private Long id;
+    private Long ownerId;
+    private String name;
+    private String holderName;
+}
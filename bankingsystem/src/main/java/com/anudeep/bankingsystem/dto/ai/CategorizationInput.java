@@ -0,0 +1,17 @@
+package com.anudeep.bankingsystem.dto.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorizationInput {
+    private Long id;
+    private Long userId;
+    private String description;
+    private BigDecimal amount;
+}
@@ -0,0 +1,27 @@
+package com.anudeep.bankingsystem.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An account with its activity counters; the counter fields are null when
+ * the account has no account_stats row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountActivityRow {
+    private Long accountId;
+    private String name;
+    private String type;
+    private BigDecimal balance;
+    private Integer balanceSlots;
+    private Long transactionCount;
+    private LocalDateTime lastActivityAt;
+    private BigDecimal inflow;
+    private BigDecimal outflow;
+}
@@ -6,15 +6,19 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class AccountSummaryResponse {
     private Long accountId;
     private String name;
     private String type;
     private BigDecimal balance;
     private int transactionCount;
+    private LocalDateTime lastActivityAt;
+    private BigDecimal inflow;
+    private BigDecimal outflow;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.anudeep.bankingsystem.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySpendingRow {
+    private String category;
+    private BigDecimal total;
+    private Long count;
+}
@@ -0,0 +1,23 @@
+package com.anudeep.bankingsystem.dto.analytics;
+
+import com.anudeep.bankingsystem.dto.transaction.TransactionResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything the dashboard shows, in one response: totals, the user's
+ * accounts and their most recent transactions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardSnapshot {
+    private DashboardSummaryResponse summary;
+    private List<AccountSummaryResponse> accounts;
+    private List<TransactionResponse> recentTransactions;
+}
@@ -0,0 +1,15 @@
+package com.anudeep.bankingsystem.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+    private int index;
+    private boolean success;
+    private Long transactionId; // outgoing leg for transfers
+    private String error;
+}
@@ -0,0 +1,27 @@
+package com.anudeep.bankingsystem.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One posting inside a batch. It has the fields of TransactionRequest plus a
+ * type: the single-posting endpoints take the type from their path
+ * (/deposit, /withdraw, /transfer), but one batch mixes all three. For a
+ * DEPOSIT or WITHDRAW fromAccountId is the account posted to, as on those
+ * endpoints. Items are validated individually by the batch service, not with
+ * bean validation, so a bad item is reported in its result instead of failing
+ * the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionItem {
+    private String type; // DEPOSIT, WITHDRAW or TRANSFER
+    private Long fromAccountId;
+    private Long toAccountId;
+    private BigDecimal amount;
+    private String description;
+}
@@ -0,0 +1,17 @@
+package com.anudeep.bankingsystem.dto.transaction;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionRequest {
+
+    @NotEmpty(message = "Batch must contain at least one item")
+    private List<BatchTransactionItem> items;
+}
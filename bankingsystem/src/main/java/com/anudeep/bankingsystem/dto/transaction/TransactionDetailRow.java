@@ -0,0 +1,36 @@
+package com.anudeep.bankingsystem.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat result of the single-statement detail query: the transaction, its
+ * account, the related account and that account's owner.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionDetailRow {
+    private Long id;
+    private Long userId;
+    private Long accountId;
+    private String accountName;
+    private String accountType;
+    private BigDecimal accountBalance;
+    private Long relatedAccountId;
+    private String relatedAccountName;
+    private String relatedAccountType;
+    private BigDecimal relatedAccountBalance;
+    private Long relatedUserId;
+    private String relatedUserName;
+    private BigDecimal amount;
+    private String type;
+    private String category;
+    private Double categoryConfidence;
+    private String description;
+    private LocalDateTime createdAt;
+}
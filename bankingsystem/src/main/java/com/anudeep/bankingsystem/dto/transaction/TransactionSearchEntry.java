@@ -0,0 +1,13 @@
+package com.anudeep.bankingsystem.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSearchEntry {
+    private Long id;
+    private String description;
+}
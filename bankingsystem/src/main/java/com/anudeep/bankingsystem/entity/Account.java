@@ -1,5 +1,6 @@
 package com.anudeep.bankingsystem.entity;
 
+import com.anudeep.bankingsystem.util.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -20,7 +21,7 @@ public class Account implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,6 +37,14 @@ public class Account implements Serializable {
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal balance;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Number of sub-balance slots for hot receiving accounts; 0 means the balance lives only in this row
+    @Column(name = "balance_slots", nullable = false)
+    private int balanceSlots;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
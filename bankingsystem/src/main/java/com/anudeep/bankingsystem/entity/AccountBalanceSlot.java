@@ -0,0 +1,34 @@
+package com.anudeep.bankingsystem.entity;
+
+import com.anudeep.bankingsystem.util.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Credit-only sub-balance of a sharded account. The account's real balance is
+ * accounts.balance plus the sum of its slots; slots are folded back into the
+ * main row before any debit and periodically by the consolidation job.
+ */
+@Entity
+@Table(name = "account_balance_slots",
+    uniqueConstraints = @UniqueConstraint(name = "uk_account_slot", columnNames = {"account_id", "slot"}))
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountBalanceSlot {
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+}
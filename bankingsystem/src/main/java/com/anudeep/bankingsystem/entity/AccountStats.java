@@ -0,0 +1,37 @@
+package com.anudeep.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running activity counters of one account, kept by AccountStatsService.
+ * Not maintained for balance-sharded accounts (the extra row would serialize
+ * their credits again); those are counted from the ledger on demand.
+ */
+@Entity
+@Table(name = "account_stats")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountStats {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "txn_count", nullable = false)
+    private long txnCount;
+
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+
+    @Column(name = "inflow_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal inflowTotal;
+
+    @Column(name = "outflow_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal outflowTotal;
+}
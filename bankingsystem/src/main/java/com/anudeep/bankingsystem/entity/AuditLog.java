@@ -1,5 +1,6 @@
 package com.anudeep.bankingsystem.entity;
 
+import com.anudeep.bankingsystem.util.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -17,7 +18,7 @@ import java.time.LocalDateTime;
 @Builder
 public class AuditLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
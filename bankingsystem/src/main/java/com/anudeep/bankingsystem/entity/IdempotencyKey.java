@@ -0,0 +1,50 @@
+package com.anudeep.bankingsystem.entity;
+
+import com.anudeep.bankingsystem.util.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency-Key seen on a posting endpoint. The row is reserved before the
+ * posting runs and completed with the serialized response inside the posting
+ * transaction, so a committed posting always has its stored response.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+    uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_user_key", columnNames = {"user_id", "idem_key"}),
+    indexes = @Index(name = "idx_idempotency_created_at", columnList = "created_at"))
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKey {
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "idem_key", nullable = false, length = 100)
+    private String idemKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // Null while the posting is in flight
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -1,5 +1,6 @@
 package com.anudeep.bankingsystem.entity;
 
+import com.anudeep.bankingsystem.util.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -9,10 +10,13 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "transactions", indexes = {
-    @Index(name = "idx_user_id", columnList = "user_id"),
-    @Index(name = "idx_account_id", columnList = "account_id"),
+    @Index(name = "idx_user_created_id", columnList = "user_id, created_at, id"),
+    // Covers per-account activity counts and totals
+    @Index(name = "idx_account_created_amount", columnList = "account_id, created_at, amount"),
     @Index(name = "idx_created_at", columnList = "created_at"),
-    @Index(name = "idx_category", columnList = "category")
+    @Index(name = "idx_user_type_created", columnList = "user_id, type, created_at"),
+    // Covers the per-category aggregate (amount included) as well as category listings
+    @Index(name = "idx_user_category_created_amount", columnList = "user_id, category, created_at, amount")
 })
 @Getter @Setter
 @NoArgsConstructor
@@ -22,7 +26,7 @@ public class Transaction implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
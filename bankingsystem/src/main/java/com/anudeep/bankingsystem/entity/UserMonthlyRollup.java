@@ -0,0 +1,55 @@
+package com.anudeep.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Running totals of a user's ledger rows per calendar month and transaction
+ * type, split over slots like account balances: rows on balance-sharded
+ * accounts add to a random slot 1..N, everything else to slot 0. Maintained
+ * by MonthlyRollupService in the posting transaction with INSERT ... ON
+ * DUPLICATE KEY UPDATE, so the table is only mapped here for the schema.
+ */
+@Entity
+@Table(name = "user_monthly_rollup")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserMonthlyRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    // Signed sum of amounts (withdrawals and outgoing transfers are negative)
+    @Column(name = "amount_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amountTotal;
+
+    @Column(name = "txn_count", nullable = false)
+    private long txnCount;
+
+    @Embeddable
+    @Getter @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        // yyyymm
+        @Column(name = "month_key", nullable = false)
+        private int monthKey;
+
+        @Column(nullable = false, length = 20)
+        private String type;
+
+        @Column(nullable = false)
+        private int slot;
+    }
+}
@@ -0,0 +1,14 @@
+package com.anudeep.bankingsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when balance sharding is switched off for an account, whose
+ * postings are counted in the posting transaction again from then on.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountShardingDisabledEvent {
+    private final Long accountId;
+}
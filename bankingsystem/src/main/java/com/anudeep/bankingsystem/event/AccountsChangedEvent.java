@@ -0,0 +1,13 @@
+package com.anudeep.bankingsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a user's accounts are created, renamed, deleted or re-sharded.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountsChangedEvent {
+    private final Long userId;
+}
@@ -0,0 +1,15 @@
+package com.anudeep.bankingsystem.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cache invalidations to every instance that may hold the entry,
+ * including the publishing one. The default implementation only reaches the
+ * local JVM; a multi-instance deployment replaces it with a broker-backed bean.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(String cacheName, Object key);
+
+    void subscribe(String cacheName, Consumer<Object> listener);
+}
@@ -0,0 +1,14 @@
+package com.anudeep.bankingsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorizationPayload {
+    private List<Long> transactionIds;
+}
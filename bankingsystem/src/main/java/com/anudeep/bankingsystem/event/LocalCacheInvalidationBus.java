@@ -0,0 +1,37 @@
+package com.anudeep.bankingsystem.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM invalidation bus: delivers synchronously to the listeners of this instance only.
+ */
+@Component
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+    private static final Logger logger = LoggerFactory.getLogger(LocalCacheInvalidationBus.class);
+
+    private final Map<String, List<Consumer<Object>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String cacheName, Object key) {
+        for (Consumer<Object> listener : listeners.getOrDefault(cacheName, List.of())) {
+            try {
+                listener.accept(key);
+            } catch (RuntimeException e) {
+                logger.warn("Invalidation of {} in cache {} failed: {}", key, cacheName, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String cacheName, Consumer<Object> listener) {
+        listeners.computeIfAbsent(cacheName, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+}
@@ -0,0 +1,15 @@
+package com.anudeep.bankingsystem.event;
+
+import com.anudeep.bankingsystem.entity.OutboxEvent;
+
+/**
+ * Side effect run by the outbox relay after the posting that recorded the
+ * event has committed. Handlers may be invoked more than once for the same
+ * event (retries, relay restarts) and must tolerate that.
+ */
+public interface OutboxEventHandler {
+
+    String eventType();
+
+    void handle(OutboxEvent event) throws Exception;
+}
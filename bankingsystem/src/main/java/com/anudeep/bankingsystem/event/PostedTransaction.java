@@ -0,0 +1,39 @@
+package com.anudeep.bankingsystem.event;
+
+import com.anudeep.bankingsystem.entity.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Detached copy of a posted ledger row, safe to use after the posting transaction ends.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostedTransaction {
+    private Long id;
+    private Long userId;
+    private Long accountId;
+    private Long relatedAccountId;
+    private String type;
+    private BigDecimal amount;
+    private String description;
+    private LocalDateTime createdAt;
+
+    public static PostedTransaction of(Transaction t) {
+        return new PostedTransaction(
+                t.getId(),
+                t.getUser().getId(),
+                t.getAccount().getId(),
+                t.getRelatedAccount() != null ? t.getRelatedAccount().getId() : null,
+                t.getType(),
+                t.getAmount(),
+                t.getDescription(),
+                t.getCreatedAt()
+        );
+    }
+}
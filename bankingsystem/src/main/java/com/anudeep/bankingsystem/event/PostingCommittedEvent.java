@@ -0,0 +1,24 @@
+package com.anudeep.bankingsystem.event;
+
+import com.anudeep.bankingsystem.entity.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published inside every posting transaction; in-process read models react to
+ * it with {@code @TransactionalEventListener} so they only see committed rows.
+ */
+@Getter
+@AllArgsConstructor
+public class PostingCommittedEvent {
+    private final List<PostedTransaction> transactions;
+    // Taken when the event is built, i.e. before the posting commits
+    private final long publishedAtNanos = System.nanoTime();
+
+    public static PostingCommittedEvent of(Collection<Transaction> rows) {
+        return new PostingCommittedEvent(rows.stream().map(PostedTransaction::of).toList());
+    }
+}
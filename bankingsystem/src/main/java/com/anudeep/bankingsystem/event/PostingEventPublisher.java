@@ -0,0 +1,48 @@
+package com.anudeep.bankingsystem.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the events of a posting. While a posting runs under a savepoint
+ * that may still be rolled back (see SequencedPostingEngine), its events are
+ * held back instead: publishing registers after-commit callbacks on the
+ * surrounding transaction, which a savepoint rollback would not undo.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostingEventPublisher {
+    private final ApplicationEventPublisher delegate;
+    private final ThreadLocal<List<Object>> held = new ThreadLocal<>();
+
+    public void publish(Object event) {
+        List<Object> sink = held.get();
+        if (sink != null) {
+            sink.add(event);
+        } else {
+            delegate.publishEvent(event);
+        }
+    }
+
+    /**
+     * Runs the work with the events it publishes collected into sink; the
+     * caller publishes them once the work is known to stay.
+     */
+    public <T> T collecting(List<Object> sink, Supplier<T> work) {
+        List<Object> previous = held.get();
+        held.set(sink);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                held.set(previous);
+            } else {
+                held.remove();
+            }
+        }
+    }
+}
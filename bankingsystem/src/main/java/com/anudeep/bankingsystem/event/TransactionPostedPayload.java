@@ -0,0 +1,19 @@
+package com.anudeep.bankingsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPostedPayload {
+    private Long userId;
+    private Long transactionId;
+    private Long accountId;
+    private String type;
+    private BigDecimal amount;
+    private String details;
+}
@@ -0,0 +1,22 @@
+package com.anudeep.bankingsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Published when the category of already posted transactions is written.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionsRecategorizedEvent {
+    // transaction id -> new category
+    private final Map<Long, String> categories;
+    private final Collection<Long> userIds;
+
+    public Collection<Long> getTransactionIds() {
+        return categories.keySet();
+    }
+}
@@ -0,0 +1,5 @@
+package com.anudeep.bankingsystem.exception;
+
+public class ConflictException extends ApiException {
+    public ConflictException(String message) { super(message); }
+}
@@ -0,0 +1,21 @@
+package com.anudeep.bankingsystem.exception;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A queued posting that was not confirmed in time. It may still commit, so
+ * an Idempotency-Key reserved for it must stay reserved until the outcome
+ * settles; a retry with the same key then gets a 409 or the stored response.
+ */
+public class PostingPendingException extends RetryLaterException {
+    private final transient CompletableFuture<?> outcome;
+
+    public PostingPendingException(String message, CompletableFuture<?> outcome) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    public CompletableFuture<?> outcome() {
+        return outcome;
+    }
+}
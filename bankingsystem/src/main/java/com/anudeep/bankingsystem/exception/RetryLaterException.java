@@ -0,0 +1,10 @@
+package com.anudeep.bankingsystem.exception;
+
+/**
+ * A transient failure (lock contention, deadlock) that outlasted the retry
+ * budget. Surfaced as 503 so clients back off and retry.
+ */
+public class RetryLaterException extends ApiException {
+    public RetryLaterException(String message) { super(message); }
+    public RetryLaterException(String message, Throwable t) { super(message, t); }
+}
@@ -0,0 +1,31 @@
+package com.anudeep.bankingsystem.listener;
+
+import com.anudeep.bankingsystem.entity.OutboxEvent;
+import com.anudeep.bankingsystem.event.CategorizationPayload;
+import com.anudeep.bankingsystem.event.OutboxEventHandler;
+import com.anudeep.bankingsystem.service.CategorizationQueue;
+import com.anudeep.bankingsystem.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CategorizationOutboxHandler implements OutboxEventHandler {
+    public static final String EVENT_TYPE = "CATEGORIZE_TRANSACTIONS";
+
+    private final CategorizationQueue categorizationQueue;
+    private final OutboxService outboxService;
+
+    @Override
+    public String eventType() {
+        return EVENT_TYPE;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        CategorizationPayload payload = outboxService.readPayload(event, CategorizationPayload.class);
+
+        // Returns once the categories are written, so the event is only marked done after that
+        categorizationQueue.categorizeAndWait(payload.getTransactionIds());
+    }
+}
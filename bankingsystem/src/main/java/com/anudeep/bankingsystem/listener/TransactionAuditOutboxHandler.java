@@ -0,0 +1,35 @@
+package com.anudeep.bankingsystem.listener;
+
+import com.anudeep.bankingsystem.entity.OutboxEvent;
+import com.anudeep.bankingsystem.event.OutboxEventHandler;
+import com.anudeep.bankingsystem.event.TransactionPostedPayload;
+import com.anudeep.bankingsystem.service.AuditService;
+import com.anudeep.bankingsystem.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TransactionAuditOutboxHandler implements OutboxEventHandler {
+    public static final String EVENT_TYPE = "AUDIT_TRANSACTION";
+
+    private final AuditService auditService;
+    private final OutboxService outboxService;
+
+    @Override
+    public String eventType() {
+        return EVENT_TYPE;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        TransactionPostedPayload payload = outboxService.readPayload(event, TransactionPostedPayload.class);
+
+        String details = payload.getDetails() != null
+                ? payload.getDetails()
+                : "Amount: " + payload.getAmount() + " Account: " + payload.getAccountId();
+
+        auditService.logAction(payload.getUserId(), payload.getType(), "TRANSACTION",
+                payload.getTransactionId(), details);
+    }
+}
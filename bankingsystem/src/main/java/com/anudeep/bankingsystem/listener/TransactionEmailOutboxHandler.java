@@ -0,0 +1,51 @@
+package com.anudeep.bankingsystem.listener;
+
+import com.anudeep.bankingsystem.entity.AppUser;
+import com.anudeep.bankingsystem.entity.OutboxEvent;
+import com.anudeep.bankingsystem.event.OutboxEventHandler;
+import com.anudeep.bankingsystem.event.TransactionPostedPayload;
+import com.anudeep.bankingsystem.repository.AccountRepository;
+import com.anudeep.bankingsystem.repository.UserRepository;
+import com.anudeep.bankingsystem.service.EmailService;
+import com.anudeep.bankingsystem.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TransactionEmailOutboxHandler implements OutboxEventHandler {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionEmailOutboxHandler.class);
+
+    public static final String EVENT_TYPE = "TRANSACTION_EMAIL";
+
+    private final EmailService emailService;
+    private final OutboxService outboxService;
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepo;
+
+    @Override
+    public String eventType() {
+        return EVENT_TYPE;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        TransactionPostedPayload payload = outboxService.readPayload(event, TransactionPostedPayload.class);
+
+        AppUser user = userRepository.findById(payload.getUserId()).orElse(null);
+        if (user == null) {
+            logger.warn("Skipping confirmation email for transaction {}: user {} not found",
+                    payload.getTransactionId(), payload.getUserId());
+            return;
+        }
+
+        String accountName = accountRepo.findById(payload.getAccountId())
+                .map(a -> a.getName())
+                .orElse("-");
+
+        emailService.sendTransactionConfirmation(user.getEmail(), user.getFullName(),
+                payload.getType(), payload.getAmount().abs().toPlainString(), accountName);
+    }
+}
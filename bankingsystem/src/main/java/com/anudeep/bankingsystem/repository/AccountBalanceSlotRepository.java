@@ -0,0 +1,35 @@
+package com.anudeep.bankingsystem.repository;
+
+import com.anudeep.bankingsystem.entity.AccountBalanceSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, Long> {
+
+    @Modifying
+    @Query("UPDATE AccountBalanceSlot s SET s.balance = s.balance + :delta WHERE s.accountId = :accountId AND s.slot = :slot")
+    int credit(@Param("accountId") Long accountId, @Param("slot") int slot, @Param("delta") BigDecimal delta);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountBalanceSlot s WHERE s.accountId = :accountId ORDER BY s.slot")
+    List<AccountBalanceSlot> lockSlots(@Param("accountId") Long accountId);
+
+    @Modifying
+    @Query("UPDATE AccountBalanceSlot s SET s.balance = 0 WHERE s.accountId = :accountId")
+    int zeroSlots(@Param("accountId") Long accountId);
+
+    @Modifying
+    @Query("DELETE FROM AccountBalanceSlot s WHERE s.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+
+    @Query("SELECT s.accountId, SUM(s.balance) FROM AccountBalanceSlot s WHERE s.accountId IN :accountIds GROUP BY s.accountId")
+    List<Object[]> sumByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+}
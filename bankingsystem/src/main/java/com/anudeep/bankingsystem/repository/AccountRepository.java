@@ -1,11 +1,17 @@
 package com.anudeep.bankingsystem.repository;
 
+import com.anudeep.bankingsystem.dto.account.AccountBalanceSnapshot;
+import com.anudeep.bankingsystem.dto.account.RecipientRow;
 import com.anudeep.bankingsystem.entity.Account;
 import com.anudeep.bankingsystem.entity.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,5 +34,36 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     @Query("SELECT a.user.fullName FROM Account a WHERE a.id = :userId")
     String findUserNameByAccountId(@Param("userId") Long userId);
-    
+
+    @Query("SELECT a.user.id FROM Account a WHERE a.id = :id")
+    Optional<Long> findOwnerIdById(@Param("id") Long id);
+
+    @Query("SELECT new com.anudeep.bankingsystem.dto.account.AccountBalanceSnapshot(a.id, a.user.id, a.balance) " +
+            "FROM Account a WHERE a.id IN :ids")
+    List<AccountBalanceSnapshot> findBalanceSnapshots(@Param("ids") Collection<Long> ids);
+
+    String RECIPIENT_SELECT = "SELECT new com.anudeep.bankingsystem.dto.account.RecipientRow(" +
+            "a.id, u.id, a.name, u.fullName) FROM Account a JOIN a.user u ";
+
+    @Query(RECIPIENT_SELECT)
+    List<RecipientRow> findRecipientRows();
+
+    @Query(RECIPIENT_SELECT + "WHERE u.id = :userId")
+    List<RecipientRow> findRecipientRowsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT a.id, a.user.id, a.balanceSlots FROM Account a WHERE a.balanceSlots > 0")
+    List<Object[]> findShardedAccounts();
+
+    // Guarded balance mutations: one statement per leg, the affected-row count (0 or 1) decides success
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance + :delta, a.version = a.version + 1, a.updatedAt = :now " +
+            "WHERE a.id = :id AND a.user.id = :ownerId AND a.balance + :delta >= 0")
+    int applyOwnedDelta(@Param("id") Long id, @Param("ownerId") Long ownerId,
+                        @Param("delta") BigDecimal delta, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance + :delta, a.version = a.version + 1, a.updatedAt = :now " +
+            "WHERE a.id = :id AND a.balance + :delta >= 0")
+    int applyDelta(@Param("id") Long id, @Param("delta") BigDecimal delta, @Param("now") LocalDateTime now);
+
 }
\ No newline at end of file
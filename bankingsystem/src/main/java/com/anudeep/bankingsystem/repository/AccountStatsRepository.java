@@ -0,0 +1,18 @@
+package com.anudeep.bankingsystem.repository;
+
+import com.anudeep.bankingsystem.dto.analytics.AccountActivityRow;
+import com.anudeep.bankingsystem.entity.AccountStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AccountStatsRepository extends JpaRepository<AccountStats, Long> {
+
+    @Query("SELECT new com.anudeep.bankingsystem.dto.analytics.AccountActivityRow(" +
+            "a.id, a.name, a.type, a.balance, a.balanceSlots, s.txnCount, s.lastActivityAt, s.inflowTotal, s.outflowTotal) " +
+            "FROM Account a LEFT JOIN AccountStats s ON s.accountId = a.id " +
+            "WHERE a.user.id = :userId ORDER BY a.createdAt DESC")
+    List<AccountActivityRow> findActivityByUserId(@Param("userId") Long userId);
+}
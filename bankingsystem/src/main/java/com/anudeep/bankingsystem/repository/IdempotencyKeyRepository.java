@@ -0,0 +1,31 @@
+package com.anudeep.bankingsystem.repository;
+
+import com.anudeep.bankingsystem.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    Optional<IdempotencyKey> findByUserIdAndIdemKey(Long userId, String idemKey);
+
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.responseBody = :body, k.completedAt = :now WHERE k.id = :id")
+    int complete(@Param("id") Long id, @Param("body") String body, @Param("now") LocalDateTime now);
+
+    // Only in-flight reservations are released; a completed key must keep answering replays
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.completedAt IS NULL")
+    int release(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,64 @@
+package com.anudeep.bankingsystem.repository;
+
+import com.anudeep.bankingsystem.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Rows locked by another relay instance are skipped rather than waited on
+    @Query(value = "SELECT * FROM outbox_events WHERE status = 'NEW' AND available_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSING', e.claimedAt = :now WHERE e.id IN :ids")
+    int markClaimed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'DONE', e.processedAt = :now WHERE e.id IN :ids")
+    int markDone(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // A no-op when the claim expired meanwhile and already counted this attempt
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'NEW', e.attempts = :attempts, e.availableAt = :availableAt, " +
+            "e.lastError = :error WHERE e.id = :id AND e.attempts = :attempts - 1")
+    int markForRetry(@Param("id") Long id, @Param("attempts") int attempts,
+                     @Param("availableAt") LocalDateTime availableAt, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'FAILED', e.attempts = :attempts, e.lastError = :error " +
+            "WHERE e.id = :id AND e.attempts = :attempts - 1")
+    int markFailed(@Param("id") Long id, @Param("attempts") int attempts, @Param("error") String error);
+
+    // Expired claims (dead relay or overrunning handler) count as a failed attempt; these have none left
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET status = 'FAILED', attempts = attempts + 1, last_error = 'Claim expired' " +
+            "WHERE status = 'PROCESSING' AND claimed_at < :before AND attempts + 1 >= :maxAttempts", nativeQuery = true)
+    int failStale(@Param("before") LocalDateTime before, @Param("maxAttempts") int maxAttempts);
+
+    // The rest go back to NEW with the same backoff as a failed handler (available_at is set before attempts changes)
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET status = 'NEW', " +
+            "available_at = DATE_ADD(:now, INTERVAL POW(2, LEAST(attempts + 1, 10)) SECOND), " +
+            "attempts = attempts + 1, last_error = 'Claim expired' " +
+            "WHERE status = 'PROCESSING' AND claimed_at < :before", nativeQuery = true)
+    int releaseStale(@Param("before") LocalDateTime before, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'DONE' AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,38 +1,81 @@
 package com.anudeep.bankingsystem.repository;
 
+import com.anudeep.bankingsystem.dto.ai.CategorizationInput;
+import com.anudeep.bankingsystem.dto.analytics.CategorySpendingRow;
+import com.anudeep.bankingsystem.dto.transaction.TransactionDetailRow;
+import com.anudeep.bankingsystem.dto.transaction.TransactionResponse;
+import com.anudeep.bankingsystem.dto.transaction.TransactionSearchEntry;
 import com.anudeep.bankingsystem.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
+
+    String RESPONSE_SELECT = "SELECT new com.anudeep.bankingsystem.dto.transaction.TransactionResponse(" +
+            "t.id, t.account.id, t.amount, t.type, t.description, t.createdAt) FROM Transaction t ";
 
     @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId ORDER BY t.createdAt DESC")
     List<Transaction> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
 
-    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId ORDER BY t.createdAt DESC")
-    Page<Transaction> findByUserIdPaginated(@Param("userId") Long userId, Pageable pageable);
+    // TransactionResponse projections: only the response columns, no entity hydration or lazy proxies
+    @Query(RESPONSE_SELECT + "WHERE t.user.id = :userId ORDER BY t.createdAt DESC")
+    List<TransactionResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query(value = RESPONSE_SELECT + "WHERE t.user.id = :userId",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.user.id = :userId")
+    Page<TransactionResponse> findByUserIdPaginated(@Param("userId") Long userId, Pageable pageable);
+
+    // Keyset pagination on (created_at, id), served by idx_user_created_id
+    @Query(RESPONSE_SELECT + "WHERE t.user.id = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionResponse> findFirstPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query(RESPONSE_SELECT + "WHERE t.user.id = :userId " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionResponse> findPageByUserIdAfter(@Param("userId") Long userId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Limit limit);
+
+    // Row-by-row result set for exports; MySQL Connector/J streams when the fetch size is Integer.MIN_VALUE
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<Transaction> streamByUserId(@Param("userId") Long userId);
 
     @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.createdAt DESC")
     List<Transaction> findByAccountIdOrderByCreatedAtDesc(@Param("accountId") Long accountId);
 
-    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.category = :category ORDER BY t.createdAt DESC")
-    List<Transaction> findByUserIdAndCategory(@Param("userId") Long userId, @Param("category") String category);
+    @Query(RESPONSE_SELECT + "WHERE t.user.id = :userId AND t.category = :category ORDER BY t.createdAt DESC")
+    List<TransactionResponse> findByUserIdAndCategory(@Param("userId") Long userId, @Param("category") String category);
 
-    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND LOWER(t.description) LIKE LOWER(CONCAT('%', :description, '%')) ORDER BY t.createdAt DESC")
-    List<Transaction> findByUserIdAndDescriptionContaining(@Param("userId") Long userId, @Param("description") String description);
+    // The description must have LIKE metacharacters escaped with '!' (see TransactionService.escapeLike)
+    @Query(RESPONSE_SELECT + "WHERE t.user.id = :userId AND LOWER(t.description) LIKE LOWER(CONCAT('%', :description, '%')) ESCAPE '!' " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionResponse> findByUserIdAndDescriptionContaining(@Param("userId") Long userId, @Param("description") String description);
 
-    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
-    List<Transaction> findByUserIdAndDateRange(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    @Query(RESPONSE_SELECT + "WHERE t.user.id = :userId AND t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
+    List<TransactionResponse> findByUserIdAndDateRange(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.type = :type ORDER BY t.createdAt DESC")
-    List<Transaction> findByUserIdAndType(@Param("userId") Long userId, @Param("type") String type);
+    @Query(RESPONSE_SELECT + "WHERE t.user.id = :userId AND t.type = :type ORDER BY t.createdAt DESC")
+    List<TransactionResponse> findByUserIdAndType(@Param("userId") Long userId, @Param("type") String type);
 
     @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND ABS(t.amount) >= :minAmount AND ABS(t.amount) <= :maxAmount ORDER BY t.createdAt DESC")
     List<Transaction> findByUserIdAndAmountRange(@Param("userId") Long userId, @Param("minAmount") BigDecimal minAmount, @Param("maxAmount") BigDecimal maxAmount);
@@ -48,4 +91,34 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     @Query("SELECT SUM(ABS(t.amount)) FROM Transaction t WHERE t.user.id = :userId AND t.category = :category")
     BigDecimal getSpendingByCategory(@Param("userId") Long userId, @Param("category") String category);
+
+    // Window and account filters are optional (null = no bound)
+    @Query("SELECT new com.anudeep.bankingsystem.dto.analytics.CategorySpendingRow(t.category, SUM(ABS(t.amount)), COUNT(t)) " +
+            "FROM Transaction t WHERE t.user.id = :userId AND t.category IS NOT NULL " +
+            "AND (:from IS NULL OR t.createdAt >= :from) AND (:to IS NULL OR t.createdAt < :to) " +
+            "AND (:accountId IS NULL OR t.account.id = :accountId) " +
+            "GROUP BY t.category")
+    List<CategorySpendingRow> sumSpendingByCategory(@Param("userId") Long userId,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to,
+                                                    @Param("accountId") Long accountId);
+
+    @Query(RESPONSE_SELECT + "WHERE t.id IN :ids")
+    List<TransactionResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.anudeep.bankingsystem.dto.transaction.TransactionSearchEntry(t.id, t.description) " +
+            "FROM Transaction t WHERE t.user.id = :userId ORDER BY t.id")
+    List<TransactionSearchEntry> findSearchEntriesByUserId(@Param("userId") Long userId);
+
+    // Everything getTransactionDetails needs, in one statement
+    @Query("SELECT new com.anudeep.bankingsystem.dto.transaction.TransactionDetailRow(" +
+            "t.id, t.user.id, a.id, a.name, a.type, a.balance, r.id, r.name, r.type, r.balance, ru.id, ru.fullName, " +
+            "t.amount, t.type, t.category, t.categoryConfidence, t.description, t.createdAt) " +
+            "FROM Transaction t JOIN t.account a LEFT JOIN t.relatedAccount r LEFT JOIN r.user ru " +
+            "WHERE t.id = :id")
+    Optional<TransactionDetailRow> findDetailRowById(@Param("id") Long id);
+
+    @Query("SELECT new com.anudeep.bankingsystem.dto.ai.CategorizationInput(t.id, t.user.id, t.description, t.amount) " +
+            "FROM Transaction t WHERE t.id IN :ids")
+    List<CategorizationInput> findCategorizationInputs(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,62 @@
+package com.anudeep.bankingsystem.repository;
+
+import com.anudeep.bankingsystem.dto.transaction.TransactionFilterRequest;
+import com.anudeep.bankingsystem.entity.Transaction;
+import com.anudeep.bankingsystem.util.TransactionCursor;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds one WHERE clause from whichever TransactionFilterRequest fields are
+ * set. user_id always leads, so the (user_id, type|category, created_at)
+ * indexes can serve the common filters.
+ */
+public final class TransactionSpecifications {
+
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> matching(Long userId, TransactionFilterRequest filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("user").get("id"), userId));
+
+            if (filter.getStartDate() != null) {
+                predicates.add(cb.greaterThan(root.get("createdAt"), filter.getStartDate()));
+            }
+            if (filter.getEndDate() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.getEndDate()));
+            }
+            if (filter.getCategory() != null && !filter.getCategory().isEmpty()) {
+                predicates.add(cb.equal(root.get("category"), filter.getCategory()));
+            }
+            if (filter.getType() != null && !filter.getType().isEmpty()) {
+                predicates.add(cb.equal(root.get("type"), filter.getType()));
+            }
+            if (filter.getMinAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(cb.abs(root.<BigDecimal>get("amount")), filter.getMinAmount()));
+            }
+            if (filter.getMaxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(cb.abs(root.<BigDecimal>get("amount")), filter.getMaxAmount()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Rows strictly after the cursor in NEWEST_FIRST order
+    public static Specification<Transaction> after(TransactionCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                cb.and(
+                        cb.equal(root.get("createdAt"), cursor.createdAt()),
+                        cb.lessThan(root.get("id"), cursor.id())));
+    }
+}
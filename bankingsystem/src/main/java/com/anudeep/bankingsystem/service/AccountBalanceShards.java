@@ -0,0 +1,264 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.entity.Account;
+import com.anudeep.bankingsystem.entity.AccountBalanceSlot;
+import com.anudeep.bankingsystem.event.AccountShardingDisabledEvent;
+import com.anudeep.bankingsystem.exception.ApiException;
+import com.anudeep.bankingsystem.repository.AccountBalanceSlotRepository;
+import com.anudeep.bankingsystem.repository.AccountRepository;
+import com.anudeep.bankingsystem.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opt-in balance sharding for hot receiving accounts. Credits to a sharded
+ * account land on one of N slot rows chosen at random, so concurrent credits
+ * stop serializing on the single accounts row. Debits first fold the slots
+ * back into the main row, and a scheduled job does the same periodically.
+ */
+@Service
+public class AccountBalanceShards {
+    private static final Logger logger = LoggerFactory.getLogger(AccountBalanceShards.class);
+
+    private record ShardInfo(Long ownerId, int slots) {
+    }
+
+    private final AccountRepository accountRepo;
+    private final AccountBalanceSlotRepository slotRepo;
+    private final TransactionTemplate txTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxSlots;
+
+    // Local view of which accounts are sharded; refreshed by the consolidation job
+    private final Map<Long, ShardInfo> sharded = new ConcurrentHashMap<>();
+
+    public AccountBalanceShards(AccountRepository accountRepo,
+                                AccountBalanceSlotRepository slotRepo,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${app.accounts.max-balance-slots:64}") int maxSlots) {
+        this.accountRepo = accountRepo;
+        this.slotRepo = slotRepo;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.maxSlots = maxSlots;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadShardedAccounts() {
+        Map<Long, ShardInfo> current = new HashMap<>();
+        for (Object[] row : accountRepo.findShardedAccounts()) {
+            current.put((Long) row[0], new ShardInfo((Long) row[1], (Integer) row[2]));
+        }
+        sharded.keySet().retainAll(current.keySet());
+        sharded.putAll(current);
+    }
+
+    public boolean isSharded(Long accountId) {
+        return accountId != null && sharded.containsKey(accountId);
+    }
+
+    /**
+     * Owner of a sharded account as known locally, or null if the account is not sharded.
+     */
+    public Long ownerOf(Long accountId) {
+        ShardInfo info = accountId != null ? sharded.get(accountId) : null;
+        return info != null ? info.ownerId() : null;
+    }
+
+    /**
+     * Slot count of a sharded account as known locally, or 0 if the account is not sharded.
+     */
+    public int slotsOf(Long accountId) {
+        ShardInfo info = accountId != null ? sharded.get(accountId) : null;
+        return info != null ? info.slots() : 0;
+    }
+
+    /**
+     * Credits a sharded account through a random slot. Falls back to the main
+     * row if the slots are gone (sharding disabled on another instance).
+     * Returns false if the account does not exist.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean credit(Long accountId, BigDecimal amount) {
+        ShardInfo info = sharded.get(accountId);
+        if (info != null) {
+            int slot = ThreadLocalRandom.current().nextInt(info.slots());
+            if (slotRepo.credit(accountId, slot, amount) == 1) {
+                return true;
+            }
+            sharded.remove(accountId);
+        }
+        return accountRepo.applyDelta(accountId, amount, LocalDateTime.now()) == 1;
+    }
+
+    /**
+     * Folds all slots of the account into accounts.balance. Locks the slot rows,
+     * so concurrent credits wait until the surrounding transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void consolidate(Long accountId) {
+        if (isSharded(accountId)) {
+            foldSlots(accountId);
+        }
+    }
+
+    private void foldSlots(Long accountId) {
+        long total = 0;
+        for (AccountBalanceSlot slot : slotRepo.lockSlots(accountId)) {
+            total = Money.add(total, Money.cents(slot.getBalance()));
+        }
+
+        if (total != 0) {
+            accountRepo.applyDelta(accountId, Money.toBigDecimal(total), LocalDateTime.now());
+            slotRepo.zeroSlots(accountId);
+        }
+    }
+
+    /**
+     * Balance including unconsolidated slot credits, for every given account.
+     * Costs one grouped query, and none when no account is sharded.
+     */
+    public Map<Long, BigDecimal> effectiveBalances(Collection<Account> accounts) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        List<Long> shardedIds = new ArrayList<>();
+        for (Account acc : accounts) {
+            balances.put(acc.getId(), acc.getBalance());
+            if (acc.getBalanceSlots() > 0) {
+                shardedIds.add(acc.getId());
+            }
+        }
+
+        if (!shardedIds.isEmpty()) {
+            for (Object[] row : slotRepo.sumByAccountIds(shardedIds)) {
+                balances.merge((Long) row[0], (BigDecimal) row[1], BigDecimal::add);
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * Unconsolidated slot totals for those of the given accounts that are sharded.
+     */
+    public Map<Long, BigDecimal> slotTotals(Collection<Long> accountIds) {
+        List<Long> shardedIds = accountIds.stream().filter(this::isSharded).toList();
+        if (shardedIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, BigDecimal> totals = new HashMap<>();
+        for (Object[] row : slotRepo.sumByAccountIds(shardedIds)) {
+            totals.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        return totals;
+    }
+
+    public BigDecimal effectiveBalance(Account acc) {
+        return effectiveBalances(List.of(acc)).get(acc.getId());
+    }
+
+    @Transactional
+    public void enable(Long userId, Long accountId, int slots) {
+        if (slots < 2 || slots > maxSlots) {
+            throw new ApiException("Slots must be between 2 and " + maxSlots);
+        }
+
+        Account acc = accountRepo.findByIdAndUserId(accountId, userId)
+                .orElseThrow(() -> new ApiException("Account not found"));
+
+        if (acc.getBalanceSlots() > 0) {
+            throw new ApiException("Balance sharding is already enabled for this account");
+        }
+
+        List<AccountBalanceSlot> rows = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            rows.add(AccountBalanceSlot.builder().accountId(accountId).slot(i).balance(BigDecimal.ZERO).build());
+        }
+        slotRepo.saveAll(rows);
+
+        acc.setBalanceSlots(slots);
+        accountRepo.save(acc);
+
+        // Only visible to credits once the slot rows are committed
+        afterCommit(() -> sharded.put(accountId, new ShardInfo(userId, slots)));
+        logger.info("Balance sharding enabled for account {} with {} slots", accountId, slots);
+    }
+
+    @Transactional
+    public void disable(Long userId, Long accountId) {
+        Account acc = accountRepo.findByIdAndUserId(accountId, userId)
+                .orElseThrow(() -> new ApiException("Account not found"));
+
+        if (acc.getBalanceSlots() == 0) {
+            return;
+        }
+
+        foldSlots(accountId);
+        slotRepo.deleteByAccountId(accountId);
+
+        // The consolidation bumped the version in the database; reload before changing the row
+        accountRepo.findById(accountId).ifPresent(fresh -> {
+            fresh.setBalanceSlots(0);
+            accountRepo.save(fresh);
+        });
+
+        afterCommit(() -> sharded.remove(accountId));
+        eventPublisher.publishEvent(new AccountShardingDisabledEvent(accountId));
+        logger.info("Balance sharding disabled for account {}", accountId);
+    }
+
+    /**
+     * Drops the slots of an account that is being deleted. Fails if a credit
+     * landed on a slot after the caller checked the balance.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Long accountId) {
+        boolean empty = slotRepo.lockSlots(accountId).stream()
+                .allMatch(s -> s.getBalance().signum() == 0);
+        if (!empty) {
+            throw new ApiException("Cannot delete account with non-zero balance");
+        }
+        slotRepo.deleteByAccountId(accountId);
+        afterCommit(() -> sharded.remove(accountId));
+    }
+
+    // Keeps the local view in line with the database when the transaction rolls back
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.accounts.consolidation-interval-ms:10000}")
+    public void consolidateAll() {
+        loadShardedAccounts();
+        for (Long accountId : sharded.keySet()) {
+            try {
+                txTemplate.executeWithoutResult(status -> consolidate(accountId));
+            } catch (Exception e) {
+                logger.warn("Consolidation of account {} failed: {}", accountId, e.getMessage());
+            }
+        }
+    }
+}
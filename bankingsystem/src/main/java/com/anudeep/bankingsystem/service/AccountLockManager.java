@@ -0,0 +1,98 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.exception.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of in-JVM locks shared by all accounts. An account always maps
+ * to the same stripe, and multi-account postings take their stripes in
+ * ascending stripe order, so two transfers can never wait on each other in a cycle.
+ */
+@Component
+public class AccountLockManager {
+    private static final Logger logger = LoggerFactory.getLogger(AccountLockManager.class);
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+
+    public AccountLockManager(@Value("${app.posting.lock-stripes:1024}") int stripeCount,
+                              @Value("${app.posting.lock-timeout-ms:5000}") long timeoutMs) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = timeoutMs;
+    }
+
+    public List<ReentrantLock> acquire(Collection<Long> accountIds) {
+        TreeSet<Integer> indexes = stripesOf(accountIds);
+        List<ReentrantLock> held = new ArrayList<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    logger.warn("Timed out waiting for account lock stripe {} (accounts: {})", index, accountIds);
+                    throw new ApiException("Account is busy, please retry");
+                }
+                held.add(lock);
+            }
+            return held;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(held);
+            throw new ApiException("Interrupted while waiting for account lock", e);
+        } catch (RuntimeException e) {
+            release(held);
+            throw e;
+        }
+    }
+
+    /**
+     * Like acquire, but never waits: returns null, holding nothing, if
+     * another thread holds one of the stripes. A caller that already holds
+     * stripes can use it without risking a cycle.
+     */
+    public List<ReentrantLock> tryAcquire(Collection<Long> accountIds) {
+        List<ReentrantLock> held = new ArrayList<>();
+        for (int index : stripesOf(accountIds)) {
+            ReentrantLock lock = stripes[index];
+            if (!lock.tryLock()) {
+                release(held);
+                return null;
+            }
+            held.add(lock);
+        }
+        return held;
+    }
+
+    public void release(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+
+    private TreeSet<Integer> stripesOf(Collection<Long> accountIds) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        accountIds.stream()
+                .filter(Objects::nonNull)
+                .forEach(id -> indexes.add(stripeFor(id)));
+        return indexes;
+    }
+
+    private int stripeFor(Long accountId) {
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (stripes.length - 1);
+    }
+}
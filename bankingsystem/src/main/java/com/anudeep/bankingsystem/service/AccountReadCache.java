@@ -0,0 +1,146 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.account.AccountResponse;
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
+import com.anudeep.bankingsystem.event.CacheInvalidationBus;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Per-user account lists with balances, as served to the dashboard. Entries
+ * are dropped after every committed posting that touches one of the user's
+ * accounts and after every account change, so the TTL only bounds how long a
+ * change made outside this application (or a lost invalidation) stays visible.
+ *
+ * Postings are announced on the invalidation bus by user and account, and
+ * every instance resolves the account owners it caches itself, so the
+ * recipient of a transfer is dropped wherever it is cached.
+ */
+@Component
+public class AccountReadCache {
+    static final String CACHE_NAME = "accounts.by-user";
+
+    // Owner of an account and the cached list that registered it
+    private record Owner(Long userId, List<AccountResponse> entry) {
+    }
+
+    private record Posted(Set<Long> userIds, Set<Long> accountIds) {
+    }
+
+    private final Cache<Long, List<AccountResponse>> byUser;
+    private final CacheInvalidationBus invalidationBus;
+
+    // account id -> owner, for the accounts of cached users; lets a posting on
+    // someone else's account (incoming transfer) find the entry to drop
+    private final Map<Long, Owner> owners = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AccountReadCache(CacheInvalidationBus invalidationBus,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.accounts.cache.max-users:10000}") long maxUsers,
+                            @Value("${app.accounts.cache.ttl-seconds:60}") long ttlSeconds) {
+        this(invalidationBus, meterRegistry, maxUsers, ttlSeconds, ForkJoinPool.commonPool());
+    }
+
+    // The executor runs removal notifications, Caffeine's default
+    AccountReadCache(CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                     long maxUsers, long ttlSeconds, Executor executor) {
+        this.invalidationBus = invalidationBus;
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .executor(executor)
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byUser, CACHE_NAME);
+        invalidationBus.subscribe(CACHE_NAME, key -> {
+            if (key instanceof Posted posted) {
+                Set<Long> affected = new HashSet<>(posted.userIds());
+                posted.accountIds().forEach(accountId -> addOwner(accountId, affected));
+                byUser.invalidateAll(affected);
+            } else {
+                byUser.invalidate((Long) key);
+            }
+        });
+    }
+
+    /**
+     * The user's accounts, loaded with the given function on a miss. An
+     * invalidation that arrives while the load is running waits for it and
+     * then removes its result, so a load cannot resurrect stale balances.
+     */
+    public List<AccountResponse> listForUser(Long userId, Function<Long, List<AccountResponse>> loader) {
+        return byUser.get(userId, id -> {
+            List<AccountResponse> accounts = List.copyOf(loader.apply(id));
+            Owner owner = new Owner(id, accounts);
+            accounts.forEach(a -> owners.put(a.getId(), owner));
+            return accounts;
+        });
+    }
+
+    public void invalidateUser(Long userId) {
+        invalidationBus.publish(CACHE_NAME, userId);
+    }
+
+    // Ordered before UserDataVersions, so a new ETag is never paired with a stale entry
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostingCommitted(PostingCommittedEvent event) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> accountIds = new HashSet<>();
+        for (PostedTransaction t : event.getTransactions()) {
+            userIds.add(t.getUserId());
+            accountIds.add(t.getAccountId());
+            if (t.getRelatedAccountId() != null) {
+                accountIds.add(t.getRelatedAccountId());
+            }
+        }
+        invalidationBus.publish(CACHE_NAME, new Posted(userIds, accountIds));
+    }
+
+    // Runs immediately when published outside a transaction (e.g. after a sharding change)
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        invalidateUser(event.getUserId());
+    }
+
+    private void addOwner(Long accountId, Set<Long> affected) {
+        Owner owner = owners.get(accountId);
+        if (owner != null) {
+            affected.add(owner.userId());
+        }
+    }
+
+    // Runs asynchronously; mappings registered by a newer load of the same user are kept
+    private void onRemoval(Long userId, List<AccountResponse> accounts, RemovalCause cause) {
+        if (accounts == null) {
+            return;
+        }
+        accounts.forEach(a -> owners.computeIfPresent(a.getId(),
+                (accountId, owner) -> owner.entry() == accounts ? null : owner));
+    }
+}
@@ -120,28 +120,41 @@ public class AccountService {
 */
 package com.anudeep.bankingsystem.service;
 
+import com.anudeep.bankingsystem.dto.PaginatedResponse;
 import com.anudeep.bankingsystem.dto.account.*;
 import com.anudeep.bankingsystem.entity.Account;
 import com.anudeep.bankingsystem.entity.AppUser;
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
 import com.anudeep.bankingsystem.exception.ApiException;
 import com.anudeep.bankingsystem.repository.AccountRepository;
 import com.anudeep.bankingsystem.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class AccountService {
     private static final Logger logger = LoggerFactory.getLogger(AccountService.class);
 
+    // Cap on the deprecated all-for-transfer list; searchRecipients pages through everything
+    static final int LEGACY_TRANSFER_LIMIT = 1000;
+
     private final AccountRepository repo;
     private final UserRepository userRepository;
+    private final AccountBalanceShards balanceShards;
+    private final AccountReadCache accountCache;
+    private final RecipientDirectory recipientDirectory;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public AccountResponse create(Long userId, AccountRequest req) {
@@ -165,6 +178,7 @@ public class AccountService {
                 .build();
 
         repo.save(acc);
+        eventPublisher.publishEvent(new AccountsChangedEvent(userId));
         logger.info("Account created successfully with id: {}", acc.getId());
 
         return toResponse(acc);
@@ -173,19 +187,26 @@ public class AccountService {
     public List<AccountResponse> listForUser(Long userId) {
         logger.info("Fetching accounts for user: {}", userId);
         
-        return repo.findByUserId(userId)
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        return accountCache.listForUser(userId, this::loadForUser);
     }
 
     public AccountResponse get(Long userId, Long accountId) {
         logger.info("Fetching account {} for user: {}", accountId, userId);
         
-        Account acc = repo.findByIdAndUserId(accountId, userId)
+        // The cached list holds every account of the user, so a miss here means not found
+        return listForUser(userId).stream()
+                .filter(a -> a.getId().equals(accountId))
+                .findFirst()
                 .orElseThrow(() -> new ApiException("Account not found"));
+    }
 
-        return toResponse(acc);
+    private List<AccountResponse> loadForUser(Long userId) {
+        List<Account> accounts = repo.findByUserId(userId);
+        Map<Long, BigDecimal> balances = balanceShards.effectiveBalances(accounts);
+
+        return accounts.stream()
+                .map(acc -> toResponse(acc, balances.get(acc.getId())))
+                .toList();
     }
 
     @Transactional
@@ -206,6 +227,7 @@ public class AccountService {
         acc.setName(newName);
         acc.setType(req.getType());
         repo.save(acc);
+        eventPublisher.publishEvent(new AccountsChangedEvent(userId));
         
         logger.info("Account {} updated successfully", accountId);
 
@@ -219,36 +241,66 @@ public class AccountService {
         Account acc = repo.findByIdAndUserId(accountId, userId)
                 .orElseThrow(() -> new ApiException("Account not found"));
 
-        if (acc.getBalance().compareTo(BigDecimal.ZERO) != 0) {
+        if (balanceShards.effectiveBalance(acc).compareTo(BigDecimal.ZERO) != 0) {
             logger.warn("Cannot delete account {} with non-zero balance", accountId);
             throw new ApiException("Cannot delete account with non-zero balance");
         }
 
+        if (acc.getBalanceSlots() > 0) {
+            balanceShards.remove(accountId);
+        }
+
         repo.delete(acc);
+        eventPublisher.publishEvent(new AccountsChangedEvent(userId));
         logger.info("Account {} deleted successfully", accountId);
     }
 
-    // NEW: Get all accounts in system for transfer recipients
+    public AccountResponse enableBalanceSharding(Long userId, Long accountId, int slots) {
+        logger.info("Enabling balance sharding on account {} for user: {} slots: {}", accountId, userId, slots);
+        balanceShards.enable(userId, accountId, slots);
+        eventPublisher.publishEvent(new AccountsChangedEvent(userId));
+        return get(userId, accountId);
+    }
+
+    public AccountResponse disableBalanceSharding(Long userId, Long accountId) {
+        logger.info("Disabling balance sharding on account {} for user: {}", accountId, userId);
+        balanceShards.disable(userId, accountId);
+        eventPublisher.publishEvent(new AccountsChangedEvent(userId));
+        return get(userId, accountId);
+    }
+
+    // Other users' accounts as transfer recipients, paged and without balances
+    public PaginatedResponse<RecipientResponse> searchRecipients(Long userId, String query, int page, int size) {
+        logger.info("Searching transfer recipients for user: {}", userId);
+        return recipientDirectory.search(userId, query, page, size);
+    }
+
+    /**
+     * @deprecated Use {@link #searchRecipients}. Kept for clients of GET
+     * /all-for-transfer: the first LEGACY_TRANSFER_LIMIT accounts by id,
+     * without balances.
+     */
+    @Deprecated
     public List<AccountResponse> getAllAccountsForTransfer() {
-        logger.info("Fetching all accounts for transfer");
-        
-        return repo.findAll()
+        logger.info("Fetching accounts for transfer (deprecated endpoint)");
+
+        return repo.findAll(PageRequest.of(0, LEGACY_TRANSFER_LIMIT, Sort.by("id")))
                 .stream()
-                .map(acc -> new AccountResponse(
-                        acc.getId(),
-                        acc.getName(),
-                        acc.getType(),
-                        acc.getBalance()
-                ))
+                .map(acc -> new AccountResponse(acc.getId(), acc.getName(), acc.getType(), null))
                 .toList();
     }
 
     private AccountResponse toResponse(Account acc) {
+        return toResponse(acc, acc.getBalance());
+    }
+
+    // Sharded accounts report accounts.balance plus their unconsolidated slot credits
+    private AccountResponse toResponse(Account acc, BigDecimal balance) {
         return new AccountResponse(
                 acc.getId(),
                 acc.getName(),
                 acc.getType(),
-                acc.getBalance()
+                balance
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.analytics.AccountActivityRow;
+import com.anudeep.bankingsystem.event.AccountShardingDisabledEvent;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.repository.AccountStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Maintains account_stats (row count, last activity, inflow and outflow per
+ * account) in the posting transaction, like MonthlyRollupService does for
+ * the monthly totals. Balance-sharded accounts are skipped and counted from
+ * the ledger with one grouped query instead; when sharding is switched off
+ * the account's counter is rebuilt once. A reconcile job walks the accounts
+ * in id ranges, a chunk per run, and rebuilds counters that drifted from the
+ * ledger, which also backfills new tables.
+ *
+ * A rebuild locks only the counter row, then reads the ledger with a plain
+ * (non-locking) query and overwrites the counter. Postings that commit
+ * before the lock are in the read; later ones wait for the lock and add
+ * their delta to the rebuilt row.
+ */
+@Service
+public class AccountStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(AccountStatsService.class);
+
+    static final class Delta {
+        long count;
+        LocalDateTime lastActivityAt;
+        BigDecimal inflow = BigDecimal.ZERO;
+        BigDecimal outflow = BigDecimal.ZERO;
+    }
+
+    private static final String UPSERT =
+            "INSERT INTO account_stats (account_id, txn_count, last_activity_at, inflow_total, outflow_total) " +
+            "VALUES (?, ?, ?, ?, ?) AS new ON DUPLICATE KEY UPDATE " +
+            "txn_count = txn_count + new.txn_count, " +
+            "last_activity_at = GREATEST(COALESCE(last_activity_at, new.last_activity_at), new.last_activity_at), " +
+            "inflow_total = inflow_total + new.inflow_total, " +
+            "outflow_total = outflow_total + new.outflow_total";
+
+    private static final String LEDGER_TOTALS =
+            "SELECT account_id, COUNT(*), MAX(created_at), " +
+            "COALESCE(SUM(CASE WHEN amount > 0 THEN amount END), 0), " +
+            "COALESCE(SUM(CASE WHEN amount < 0 THEN -amount END), 0) " +
+            "FROM transactions WHERE account_id IN (%s) GROUP BY account_id";
+
+    // The next chunk of unsharded accounts after the watermark, with their counters
+    private static final String ACCOUNT_CHUNK =
+            "SELECT a.id, s.txn_count FROM accounts a " +
+            "LEFT JOIN account_stats s ON s.account_id = a.id " +
+            "WHERE a.id > ? AND a.balance_slots = 0 ORDER BY a.id LIMIT ?";
+
+    private static final String LEDGER_COUNTS =
+            "SELECT account_id, COUNT(*) FROM transactions WHERE account_id IN (%s) GROUP BY account_id";
+
+    private static final String DELETE_ORPHANS =
+            "DELETE s FROM account_stats s LEFT JOIN accounts a ON a.id = s.account_id " +
+            "WHERE s.account_id > ? AND s.account_id <= ? AND a.id IS NULL";
+
+    // Creates or locks the counter row; postings upserting the account wait behind it
+    private static final String LOCK_COUNTER =
+            "INSERT INTO account_stats (account_id, txn_count, last_activity_at, inflow_total, outflow_total) " +
+            "VALUES (?, 0, NULL, 0, 0) ON DUPLICATE KEY UPDATE account_id = account_id";
+
+    private static final String OVERWRITE_COUNTER =
+            "UPDATE account_stats SET txn_count = ?, last_activity_at = ?, inflow_total = ?, outflow_total = ? " +
+            "WHERE account_id = ?";
+
+    private final AccountStatsRepository statsRepo;
+    private final AccountBalanceShards balanceShards;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate txTemplate;
+    private final int reconcileBatchSize;
+
+    // Highest account id checked by the current reconcile pass; 0 starts a new pass
+    private long reconciledUpTo;
+
+    public AccountStatsService(AccountStatsRepository statsRepo,
+                               AccountBalanceShards balanceShards,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.accounts.stats.reconcile-batch-size:500}") int reconcileBatchSize) {
+        this.statsRepo = statsRepo;
+        this.balanceShards = balanceShards;
+        this.jdbcTemplate = jdbcTemplate;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileBatchSize = Math.max(1, reconcileBatchSize);
+    }
+
+    @EventListener
+    public void onPosting(PostingCommittedEvent event) {
+        Map<Long, Delta> deltas = aggregate(event.getTransactions());
+        deltas.keySet().removeIf(balanceShards::isSharded);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((accountId, d) -> args.add(new Object[]{
+                accountId, d.count, Timestamp.valueOf(d.lastActivityAt), d.inflow, d.outflow}));
+        jdbcTemplate.batchUpdate(UPSERT, args);
+    }
+
+    /**
+     * The user's accounts with their counters in one query; accounts that are
+     * sharded or have no counter row yet are filled in from the ledger with
+     * one more grouped query.
+     */
+    public List<AccountActivityRow> activityForUser(Long userId) {
+        List<AccountActivityRow> rows = statsRepo.findActivityByUserId(userId);
+
+        Map<Long, AccountActivityRow> missing = new HashMap<>();
+        for (AccountActivityRow row : rows) {
+            if (row.getBalanceSlots() > 0 || row.getTransactionCount() == null) {
+                missing.put(row.getAccountId(), row);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, Delta> ledger = ledgerTotals(missing.keySet());
+            missing.forEach((accountId, row) -> {
+                Delta d = ledger.getOrDefault(accountId, new Delta());
+                row.setTransactionCount(d.count);
+                row.setLastActivityAt(d.lastActivityAt);
+                row.setInflow(d.inflow);
+                row.setOutflow(d.outflow);
+            });
+        }
+        return rows;
+    }
+
+    // The counter skipped the account while it was sharded; counting resumes from a fresh rebuild
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onShardingDisabled(AccountShardingDisabledEvent event) {
+        rebuildAccount(event.getAccountId());
+    }
+
+    // One chunk of accounts per run; a full pass takes accounts / batch size runs
+    @Scheduled(initialDelayString = "${app.accounts.stats.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${app.accounts.stats.reconcile-interval-ms:60000}")
+    public synchronized void reconcile() {
+        long after = reconciledUpTo;
+        Map<Long, Long> counters = new LinkedHashMap<>();
+        jdbcTemplate.query(ACCOUNT_CHUNK, rs -> {
+            long accountId = rs.getLong(1);
+            long count = rs.getLong(2);
+            counters.put(accountId, rs.wasNull() ? null : count);
+        }, after, reconcileBatchSize);
+
+        boolean lastChunk = counters.size() < reconcileBatchSize;
+        long upTo = lastChunk ? Long.MAX_VALUE : new ArrayList<>(counters.keySet()).get(counters.size() - 1);
+        jdbcTemplate.update(DELETE_ORPHANS, after, upTo);
+        reconciledUpTo = lastChunk ? 0 : upTo;
+        if (counters.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> ledger = ledgerCounts(counters.keySet());
+        List<Long> drifted = new ArrayList<>();
+        counters.forEach((accountId, count) -> {
+            if (count == null || count.longValue() != ledger.getOrDefault(accountId, 0L)) {
+                drifted.add(accountId);
+            }
+        });
+        if (drifted.isEmpty()) {
+            return;
+        }
+
+        int rebuilt = 0;
+        for (Long accountId : drifted) {
+            try {
+                rebuildAccount(accountId);
+                rebuilt++;
+            } catch (Exception e) {
+                logger.warn("Rebuilding stats of account {} failed: {}", accountId, e.getMessage());
+            }
+        }
+        logger.info("Account stats reconciled: {} of {} drifted accounts rebuilt", rebuilt, drifted.size());
+    }
+
+    /**
+     * Recomputes one account's counters from the ledger. Concurrent postings on
+     * the account wait for the rebuilt row and then add to it; the ledger rows
+     * themselves are not locked.
+     */
+    public void rebuildAccount(Long accountId) {
+        txTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(LOCK_COUNTER, accountId);
+            Delta d = ledgerTotals(List.of(accountId)).getOrDefault(accountId, new Delta());
+            jdbcTemplate.update(OVERWRITE_COUNTER, d.count,
+                    d.lastActivityAt != null ? Timestamp.valueOf(d.lastActivityAt) : null,
+                    d.inflow, d.outflow, accountId);
+        });
+    }
+
+    private Map<Long, Long> ledgerCounts(Collection<Long> accountIds) {
+        String placeholders = String.join(",", Collections.nCopies(accountIds.size(), "?"));
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query(String.format(LEDGER_COUNTS, placeholders),
+                rs -> { counts.put(rs.getLong(1), rs.getLong(2)); }, accountIds.toArray());
+        return counts;
+    }
+
+    private Map<Long, Delta> ledgerTotals(Collection<Long> accountIds) {
+        String placeholders = String.join(",", Collections.nCopies(accountIds.size(), "?"));
+        Map<Long, Delta> totals = new HashMap<>();
+        jdbcTemplate.query(String.format(LEDGER_TOTALS, placeholders), rs -> {
+            Delta d = new Delta();
+            d.count = rs.getLong(2);
+            Timestamp last = rs.getTimestamp(3);
+            d.lastActivityAt = last != null ? last.toLocalDateTime() : null;
+            d.inflow = rs.getBigDecimal(4);
+            d.outflow = rs.getBigDecimal(5);
+            totals.put(rs.getLong(1), d);
+        }, accountIds.toArray());
+        return totals;
+    }
+
+    static Map<Long, Delta> aggregate(Collection<PostedTransaction> rows) {
+        // Sorted so concurrent postings lock counter rows in the same order
+        Map<Long, Delta> deltas = new TreeMap<>();
+        for (PostedTransaction t : rows) {
+            Delta d = deltas.computeIfAbsent(t.getAccountId(), k -> new Delta());
+            d.count++;
+            if (d.lastActivityAt == null || t.getCreatedAt().isAfter(d.lastActivityAt)) {
+                d.lastActivityAt = t.getCreatedAt();
+            }
+            if (t.getAmount().signum() > 0) {
+                d.inflow = d.inflow.add(t.getAmount());
+            } else {
+                d.outflow = d.outflow.add(t.getAmount().negate());
+            }
+        }
+        return deltas;
+    }
+}
@@ -1,17 +1,22 @@
 package com.anudeep.bankingsystem.service;
 
+import com.anudeep.bankingsystem.dto.ai.CategorizationInput;
 import com.anudeep.bankingsystem.dto.ai.CategorizeResponse;
 import com.anudeep.bankingsystem.entity.Transaction;
+import com.anudeep.bankingsystem.event.TransactionsRecategorizedEvent;
 import com.anudeep.bankingsystem.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
+import java.math.BigDecimal;
 import java.util.*;
 import java.util.regex.Pattern;
 
@@ -22,6 +27,8 @@ public class AiService {
 
     private final TransactionRepository txnRepo;
     private final RestTemplate restTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${ai.api.url:}")
     private String aiApiUrl;
@@ -50,23 +57,14 @@ public CategorizeResponse categorizeTransaction(Transaction t) {
     try {
         logger.info("Categorizing transaction id: {}", t.getId());
         
-        // Try external LLM model first
-        CategorizeResponse resp = tryExternalModel(t);
-
-        // Fallback to rule-based
-        if (resp == null) {
-            logger.debug("External model failed, using rule-based categorization");
-            resp = ruleBased(
-                    t.getDescription(),
-                    t.getAmount() != null ? t.getAmount().doubleValue() : null
-            );
-        }
+        CategorizeResponse resp = categorize(t.getDescription(), t.getAmount());
 
         // Only save if transaction has been persisted (has ID)
         if (t.getId() != null && resp != null) {
             t.setCategory(resp.getCategory());
             t.setCategoryConfidence(resp.getConfidence());
             txnRepo.save(t);
+            eventPublisher.publishEvent(new TransactionsRecategorizedEvent(Map.of(t.getId(), resp.getCategory()), List.of(t.getUser().getId())));
             logger.info("Transaction {} categorized as: {} (confidence: {})", 
                     t.getId(), resp.getCategory(), resp.getConfidence());
         } else if (t.getId() == null) {
@@ -84,7 +82,51 @@ public CategorizeResponse categorizeTransaction(Transaction t) {
     }
 }
 
-    private CategorizeResponse tryExternalModel(Transaction t) {
+    /**
+     * Categorizes a batch of committed transactions off the posting path and
+     * writes the results back with a single JDBC batch update. Runs without a
+     * surrounding transaction so slow external calls never hold a connection.
+     */
+    public void categorizeBatch(List<Long> transactionIds) {
+        List<CategorizationInput> inputs = txnRepo.findCategorizationInputs(transactionIds);
+        List<Object[]> updates = new ArrayList<>(inputs.size());
+        Map<Long, String> categories = new HashMap<>();
+
+        for (CategorizationInput input : inputs) {
+            CategorizeResponse resp;
+            try {
+                resp = categorize(input.getDescription(), input.getAmount());
+            } catch (Exception e) {
+                logger.error("Error categorizing transaction {}: {}", input.getId(), e.getMessage(), e);
+                resp = new CategorizeResponse("UNCATEGORIZED", 0.0);
+            }
+            updates.add(new Object[]{resp.getCategory(), resp.getConfidence(), input.getId()});
+            categories.put(input.getId(), resp.getCategory());
+        }
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE transactions SET category = ?, category_confidence = ? WHERE id = ?", updates);
+            eventPublisher.publishEvent(new TransactionsRecategorizedEvent(
+                    categories,
+                    inputs.stream().map(CategorizationInput::getUserId).distinct().toList()));
+        }
+        logger.debug("Categorized batch of {} transactions", updates.size());
+    }
+
+    private CategorizeResponse categorize(String description, BigDecimal amount) {
+        // Try external LLM model first
+        CategorizeResponse resp = tryExternalModel(description, amount);
+
+        // Fallback to rule-based
+        if (resp == null) {
+            logger.debug("External model failed, using rule-based categorization");
+            resp = ruleBased(description, amount != null ? amount.doubleValue() : null);
+        }
+        return resp;
+    }
+
+    private CategorizeResponse tryExternalModel(String description, BigDecimal amount) {
         if (aiApiUrl == null || aiApiUrl.isBlank()) {
             logger.debug("AI API URL not configured, skipping external model");
             return null;
@@ -99,8 +141,8 @@ public CategorizeResponse categorizeTransaction(Transaction t) {
             }
 
             Map<String, Object> payload = Map.of(
-                    "description", t.getDescription() != null ? t.getDescription() : "",
-                    "amount", t.getAmount() != null ? t.getAmount().doubleValue() : 0
+                    "description", description != null ? description : "",
+                    "amount", amount != null ? amount.doubleValue() : 0
             );
 
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
@@ -0,0 +1,450 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.analytics.CategorySpendingRow;
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
+import com.anudeep.bankingsystem.event.CacheInvalidationBus;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.event.TransactionsRecategorizedEvent;
+import com.anudeep.bankingsystem.util.Money;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in (app.analytics.columns.enabled) in-memory copy of the ledger for the
+ * most recently queried users, one primitive array per column: amounts in
+ * cents, timestamps in epoch microseconds and dictionary-encoded categories.
+ * Window queries that cannot use a precomputed rollup (spending by category
+ * over an arbitrary range) are answered with one loop over the arrays
+ * instead of a ledger scan. Loaded lazily, appended after each posting
+ * commits and evicted least recently used first, or earlier when all users
+ * together exceed the row budget, like TransactionSearchIndex.
+ *
+ * Posted rows and re-categorizations are forwarded on the invalidation bus,
+ * so other instances apply them to the users they hold; account changes drop
+ * the user everywhere.
+ */
+@Component
+public class AnalyticsColumnStore {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsColumnStore.class);
+
+    private static final String USER_ROWS =
+            "SELECT id, account_id, amount, category, created_at FROM transactions WHERE user_id = ? ORDER BY id";
+
+    static final String CACHE_NAME = "analytics.columns";
+
+    private static final short NO_CATEGORY = -1;
+
+    // Categories of rows no held user had yet, kept until the row is appended
+    private static final int MAX_UNPLACED_CATEGORIES = 10_000;
+
+    // Published for changes applied locally; only other instances act on them
+    private record Posted(String origin, List<PostedTransaction> rows) {
+    }
+
+    private record Recategorized(String origin, Map<Long, String> categories, Collection<Long> userIds) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final boolean enabled;
+    private final int maxRowsPerUser;
+    private final long maxRows;
+
+    private final Map<Long, UserColumns> users;
+    // Rows held by all users; recounted exactly whenever a user is loaded
+    private final AtomicLong heldRows = new AtomicLong();
+    // Users being loaded; postings and re-categorizations that commit meanwhile are buffered here
+    private final Map<Long, Pending> building = new ConcurrentHashMap<>();
+    // One load per user at a time; striped so the lock set stays bounded
+    private final Object[] loadLocks = new Object[64];
+    // A re-categorization can overtake the posting's append (e.g. when forwarded from another instance)
+    private final Map<Long, Short> unplacedCategories = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Short> eldest) {
+            return size() > MAX_UNPLACED_CATEGORIES;
+        }
+    });
+
+    // Category dictionary shared by all users; categories are a small, slowly growing set
+    private final Map<String, Short> categoryCodes = new ConcurrentHashMap<>();
+    private final List<String> categoryNames = new ArrayList<>();
+
+    // Marks users with too many rows to hold; they are served by the SQL query
+    private static final UserColumns TOO_LARGE = new UserColumns();
+
+    private static final class Pending {
+        final List<PostedTransaction> rows = new ArrayList<>();
+        final Map<Long, String> categories = new HashMap<>();
+    }
+
+    public AnalyticsColumnStore(JdbcTemplate jdbcTemplate,
+                                CacheInvalidationBus invalidationBus,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.analytics.columns.enabled:false}") boolean enabled,
+                                @Value("${app.analytics.columns.max-users:2000}") int maxUsers,
+                                @Value("${app.analytics.columns.max-rows-per-user:1000000}") int maxRowsPerUser,
+                                @Value("${app.analytics.columns.max-rows:5000000}") long maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled;
+        this.maxRowsPerUser = (int) Math.min(maxRowsPerUser, maxRows);
+        this.maxRows = maxRows;
+        Arrays.setAll(loadLocks, i -> new Object());
+
+        int capacity = Math.max(1, maxUsers);
+        this.users = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserColumns> eldest) {
+                if (size() > capacity) {
+                    heldRows.addAndGet(-eldest.getValue().size());
+                    return true;
+                }
+                return false;
+            }
+        });
+
+        Gauge.builder("analytics.columns.users", users, Map::size)
+                .description("Users with an in-memory column copy of their ledger")
+                .register(meterRegistry);
+        Gauge.builder("analytics.columns.rows", heldRows, AtomicLong::get)
+                .description("Ledger rows held by the analytics column store")
+                .register(meterRegistry);
+
+        invalidationBus.subscribe(CACHE_NAME, key -> {
+            if (key instanceof Posted posted) {
+                if (!instanceId.equals(posted.origin())) {
+                    append(posted.rows());
+                }
+            } else if (key instanceof Recategorized recategorized) {
+                if (!instanceId.equals(recategorized.origin())) {
+                    recategorize(recategorized.categories(), recategorized.userIds());
+                }
+            } else {
+                drop((Long) key);
+            }
+        });
+    }
+
+    /**
+     * Per-category totals of the user's categorized rows, with the same
+     * semantics as TransactionRepository.sumSpendingByCategory, or empty if
+     * the store is disabled or the user is too large to hold.
+     */
+    public Optional<List<CategorySpendingRow>> spendingByCategory(Long userId, LocalDateTime from, LocalDateTime to, Long accountId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        UserColumns columns = users.get(userId);
+        if (columns == null) {
+            columns = load(userId);
+        }
+        if (columns == TOO_LARGE) {
+            return Optional.empty();
+        }
+
+        long fromMicros = from != null ? epochMicros(from) : Long.MIN_VALUE;
+        long toMicros = to != null ? epochMicros(to) : Long.MAX_VALUE;
+        long account = accountId != null ? accountId : 0L;
+
+        List<String> names = categoryNames();
+        long[] totals = new long[names.size()];
+        long[] counts = new long[names.size()];
+        columns.sumByCategory(fromMicros, toMicros, accountId != null, account, totals, counts);
+
+        List<CategorySpendingRow> rows = new ArrayList<>();
+        for (int code = 0; code < totals.length; code++) {
+            if (counts[code] > 0) {
+                rows.add(new CategorySpendingRow(names.get(code), Money.toBigDecimal(totals[code]), counts[code]));
+            }
+        }
+        return Optional.of(rows);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostingCommitted(PostingCommittedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        append(event.getTransactions());
+        invalidationBus.publish(CACHE_NAME, new Posted(instanceId, event.getTransactions()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecategorized(TransactionsRecategorizedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        recategorize(event.getCategories(), event.getUserIds());
+        invalidationBus.publish(CACHE_NAME, new Recategorized(instanceId, event.getCategories(), event.getUserIds()));
+    }
+
+    // An account may have been deleted together with its rows
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        if (enabled) {
+            invalidationBus.publish(CACHE_NAME, event.getUserId());
+        }
+    }
+
+    private void append(List<PostedTransaction> rows) {
+        for (PostedTransaction t : rows) {
+            Pending pending = building.get(t.getUserId());
+            if (pending != null) {
+                synchronized (pending) {
+                    if (building.get(t.getUserId()) == pending) {
+                        pending.rows.add(t);
+                        continue;
+                    }
+                }
+            }
+
+            // Users not held yet pick the row up when they are loaded
+            UserColumns columns = users.get(t.getUserId());
+            if (columns != null && columns != TOO_LARGE && appendPosted(columns, t)) {
+                heldRows.incrementAndGet();
+            }
+        }
+
+        if (heldRows.get() > maxRows) {
+            evictOverBudget(null);
+        }
+    }
+
+    private boolean appendPosted(UserColumns columns, PostedTransaction t) {
+        Short category = unplacedCategories.remove(t.getId());
+        return columns.append(t.getId(), t.getAccountId(), Money.cents(t.getAmount()),
+                category != null ? category : NO_CATEGORY, epochMicros(t.getCreatedAt()));
+    }
+
+    private void recategorize(Map<Long, String> categories, Collection<Long> userIds) {
+        Map<Long, Short> codes = new HashMap<>();
+        categories.forEach((id, category) -> codes.put(id, categoryCode(category)));
+
+        Set<Long> placed = new HashSet<>();
+        boolean held = false;
+        for (Long userId : userIds) {
+            Pending pending = building.get(userId);
+            if (pending != null) {
+                synchronized (pending) {
+                    if (building.get(userId) == pending) {
+                        pending.categories.putAll(categories);
+                        placed.addAll(categories.keySet());
+                        continue;
+                    }
+                }
+            }
+
+            UserColumns columns = users.get(userId);
+            if (columns != null && columns != TOO_LARGE) {
+                held = true;
+                placed.addAll(columns.setCategories(codes));
+            }
+        }
+
+        if (held) {
+            keepUnplaced(codes, placed);
+        }
+    }
+
+    // Rows that are not appended yet get their category on append
+    private void keepUnplaced(Map<Long, Short> codes, Set<Long> placed) {
+        codes.forEach((id, code) -> {
+            if (!placed.contains(id)) {
+                unplacedCategories.put(id, code);
+            }
+        });
+    }
+
+    private UserColumns load(Long userId) {
+        // A concurrent load for the same user would replace this one's pending buffer
+        synchronized (loadLocks[Math.floorMod(userId.hashCode(), loadLocks.length)]) {
+            UserColumns held = users.get(userId);
+            if (held != null) {
+                return held;
+            }
+
+            Pending pending = new Pending();
+            building.put(userId, pending);
+            try {
+                Integer rowCount = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM transactions WHERE user_id = ?", Integer.class, userId);
+                if (rowCount != null && rowCount > maxRowsPerUser) {
+                    logger.info("User {} has too many transactions for the analytics column store", userId);
+                    users.put(userId, TOO_LARGE);
+                    return TOO_LARGE;
+                }
+
+                long started = System.currentTimeMillis();
+                UserColumns columns = new UserColumns();
+                // Streamed row by row; no entities or intermediate lists
+                jdbcTemplate.query(USER_ROWS, rs -> {
+                    columns.append(rs.getLong(1), rs.getLong(2), Money.cents(rs.getBigDecimal(3)),
+                            categoryCode(rs.getString(4)), epochMicros(rs.getTimestamp(5).toLocalDateTime()));
+                }, userId);
+                columns.markLoaded();
+
+                synchronized (pending) {
+                    // Rows committed while the query ran may already be in the result; append skips them
+                    pending.rows.forEach(t -> appendPosted(columns, t));
+                    Map<Long, Short> codes = new HashMap<>();
+                    pending.categories.forEach((id, category) -> codes.put(id, categoryCode(category)));
+                    keepUnplaced(codes, columns.setCategories(codes));
+
+                    users.put(userId, columns);
+                    building.remove(userId, pending);
+                }
+                evictOverBudget(userId);
+
+                logger.debug("Loaded analytics columns for user {} with {} rows in {} ms",
+                        userId, columns.size(), System.currentTimeMillis() - started);
+                return columns;
+            } finally {
+                building.remove(userId, pending);
+            }
+        }
+    }
+
+    private void drop(Long userId) {
+        UserColumns columns = users.remove(userId);
+        if (columns != null) {
+            heldRows.addAndGet(-columns.size());
+        }
+    }
+
+    // Recounts the held rows and drops least recently used users, other than keep, until under budget
+    private void evictOverBudget(Long keep) {
+        synchronized (users) {
+            long held = 0;
+            for (UserColumns columns : users.values()) {
+                held += columns.size();
+            }
+
+            Iterator<Map.Entry<Long, UserColumns>> eldestFirst = users.entrySet().iterator();
+            while (held > maxRows && eldestFirst.hasNext()) {
+                Map.Entry<Long, UserColumns> entry = eldestFirst.next();
+                if (!entry.getKey().equals(keep)) {
+                    held -= entry.getValue().size();
+                    eldestFirst.remove();
+                }
+            }
+            heldRows.set(held);
+        }
+    }
+
+    short categoryCode(String category) {
+        if (category == null) {
+            return NO_CATEGORY;
+        }
+        return categoryCodes.computeIfAbsent(category, c -> {
+            synchronized (categoryNames) {
+                if (categoryNames.size() == Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many distinct categories for the analytics column store");
+                }
+                categoryNames.add(c);
+                return (short) (categoryNames.size() - 1);
+            }
+        });
+    }
+
+    private List<String> categoryNames() {
+        synchronized (categoryNames) {
+            return List.copyOf(categoryNames);
+        }
+    }
+
+    // Microseconds, the precision of the created_at column
+    static long epochMicros(LocalDateTime at) {
+        return at.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + at.getNano() / 1_000;
+    }
+
+    static final class UserColumns {
+        private long[] ids = new long[64];
+        private long[] accountIds = new long[64];
+        private long[] cents = new long[64];
+        private long[] createdAt = new long[64];
+        private short[] categories = new short[64];
+        private int size;
+        private int loadedRows;
+
+        synchronized int size() {
+            return size;
+        }
+
+        // False if the row came with the load; a posting can commit while the load query runs
+        synchronized boolean append(long id, long accountId, long amountCents, short category, long createdAtMicros) {
+            if (containsLoaded(id)) {
+                return false;
+            }
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                accountIds = Arrays.copyOf(accountIds, capacity);
+                cents = Arrays.copyOf(cents, capacity);
+                createdAt = Arrays.copyOf(createdAt, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+            }
+
+            int row = size++;
+            ids[row] = id;
+            accountIds[row] = accountId;
+            cents[row] = amountCents;
+            createdAt[row] = createdAtMicros;
+            categories[row] = category;
+            return true;
+        }
+
+        // Called once the load query's rows, sorted by id, are in
+        synchronized void markLoaded() {
+            loadedRows = size;
+        }
+
+        synchronized boolean containsLoaded(long id) {
+            return Arrays.binarySearch(ids, 0, loadedRows, id) >= 0;
+        }
+
+        // Re-categorized rows are recent, so the scan starts at the newest row; returns the ids found
+        synchronized Set<Long> setCategories(Map<Long, Short> codes) {
+            Set<Long> found = new HashSet<>();
+            for (int row = size - 1; row >= 0 && found.size() < codes.size(); row--) {
+                Short code = codes.get(ids[row]);
+                if (code != null) {
+                    categories[row] = code;
+                    found.add(ids[row]);
+                }
+            }
+            return found;
+        }
+
+        synchronized void sumByCategory(long fromMicros, long toMicros, boolean filterAccount, long accountId,
+                                        long[] totals, long[] counts) {
+            for (int row = 0; row < size; row++) {
+                int category = categories[row];
+                if (category < 0 || category >= totals.length
+                        || createdAt[row] < fromMicros || createdAt[row] >= toMicros
+                        || (filterAccount && accountIds[row] != accountId)) {
+                    continue;
+                }
+                totals[category] = Money.add(totals[category], Math.abs(cents[row]));
+                counts[category]++;
+            }
+        }
+    }
+}
@@ -1,19 +1,19 @@
 package com.anudeep.bankingsystem.service;
 
 import com.anudeep.bankingsystem.dto.analytics.*;
-import com.anudeep.bankingsystem.entity.Account;
-import com.anudeep.bankingsystem.entity.Transaction;
-import com.anudeep.bankingsystem.repository.AccountRepository;
+import com.anudeep.bankingsystem.dto.transaction.TransactionResponse;
+import com.anudeep.bankingsystem.exception.ApiException;
 import com.anudeep.bankingsystem.repository.TransactionRepository;
+import com.anudeep.bankingsystem.util.Money;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.YearMonth;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,15 +21,30 @@ public class AnalyticsService {
     private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
 
     private final TransactionRepository txnRepo;
-    private final AccountRepository accRepo;
+    private final AccountBalanceShards balanceShards;
+    private final MonthlyRollupService monthlyRollups;
+    private final AccountStatsService accountStats;
+    private final DashboardSnapshotCache dashboardSnapshots;
+    private final AnalyticsColumnStore columnStore;
 
     public DashboardSummaryResponse getDashboardSummary(Long userId) {
-        logger.info("Generating dashboard summary for user: {}", userId);
+        return getDashboard(userId).getSummary();
+    }
+
+    // Cached per user; committed postings are applied to the cached snapshot
+    public DashboardSnapshot getDashboard(Long userId) {
+        return dashboardSnapshots.get(userId, this::loadDashboard);
+    }
 
-        List<Account> accounts = accRepo.findByUserId(userId);
-        BigDecimal totalBalance = accounts.stream()
-                .map(Account::getBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private DashboardSnapshot loadDashboard(Long userId) {
+        logger.info("Generating dashboard snapshot for user: {}", userId);
+
+        List<AccountSummaryResponse> accounts = getAccountSummary(userId);
+        long totalBalanceCents = 0;
+        for (AccountSummaryResponse account : accounts) {
+            totalBalanceCents = Money.add(totalBalanceCents, Money.cents(account.getBalance()));
+        }
+        BigDecimal totalBalance = Money.toBigDecimal(totalBalanceCents);
 
         BigDecimal totalIncome = txnRepo.getTotalIncome(userId);
         if (totalIncome == null) totalIncome = BigDecimal.ZERO;
@@ -40,92 +55,67 @@ public class AnalyticsService {
         BigDecimal netSavings = totalIncome.add(totalExpense);
 
         int transactionCount = txnRepo.countByUserId(userId);
-        int accountCount = accounts.size();
+        List<TransactionResponse> recent = txnRepo.findFirstPageByUserId(
+                userId, Limit.of(DashboardSnapshotCache.RECENT_TRANSACTIONS));
 
-        logger.info("Dashboard summary generated: balance={}, income={}, expense={}", 
+        logger.info("Dashboard snapshot generated: balance={}, income={}, expense={}",
                 totalBalance, totalIncome, totalExpense);
 
-        return DashboardSummaryResponse.builder()
+        DashboardSummaryResponse summary = DashboardSummaryResponse.builder()
                 .totalBalance(totalBalance)
                 .totalIncome(totalIncome)
                 .totalExpense(totalExpense.abs())
                 .netSavings(netSavings)
                 .transactionCount(transactionCount)
-                .accountCount(accountCount)
+                .accountCount(accounts.size())
+                .build();
+
+        return DashboardSnapshot.builder()
+                .summary(summary)
+                .accounts(accounts)
+                .recentTransactions(recent)
                 .build();
     }
 
     public SpendingByCategoryResponse getSpendingByCategory(Long userId) {
+        return getSpendingByCategory(userId, null, null, null);
+    }
+
+    // One grouped statement, or one loop over the column store when enabled;
+    // from (inclusive), to (exclusive) and accountId are optional
+    public SpendingByCategoryResponse getSpendingByCategory(Long userId, LocalDateTime from, LocalDateTime to, Long accountId) {
         logger.info("Generating spending by category for user: {}", userId);
 
-        List<Transaction> transactions = txnRepo.findByUserIdOrderByCreatedAtDesc(userId);
-
-        Map<String, BigDecimal> categorySpending = transactions.stream()
-                .filter(t -> t.getCategory() != null)
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                t -> t.getAmount().abs(),
-                                BigDecimal::add
-                        )
-                ));
-
-        Map<String, Integer> categoryCount = transactions.stream()
-                .filter(t -> t.getCategory() != null)
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.summingInt(t -> 1)
-                ));
-
-        BigDecimal totalSpending = categorySpending.values().stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ApiException("'from' must be before 'to'");
+        }
+
+        Map<String, BigDecimal> categorySpending = new HashMap<>();
+        Map<String, Integer> categoryCount = new HashMap<>();
+        long totalCents = 0;
+
+        List<CategorySpendingRow> rows = columnStore.spendingByCategory(userId, from, to, accountId)
+                .orElseGet(() -> txnRepo.sumSpendingByCategory(userId, from, to, accountId));
+
+        for (CategorySpendingRow row : rows) {
+            categorySpending.put(row.getCategory(), row.getTotal());
+            categoryCount.put(row.getCategory(), row.getCount().intValue());
+            totalCents = Money.add(totalCents, Money.cents(row.getTotal()));
+        }
 
         logger.info("Spending by category: {} categories found", categorySpending.size());
 
         return SpendingByCategoryResponse.builder()
                 .categorySpending(categorySpending)
                 .categoryCount(categoryCount)
-                .totalSpending(totalSpending)
+                .totalSpending(Money.toBigDecimal(totalCents))
                 .build();
     }
 
     public List<MonthlySummaryResponse> getMonthlySummary(Long userId, int months) {
         logger.info("Generating monthly summary for user: {} last {} months", userId, months);
 
-        List<Transaction> transactions = txnRepo.findByUserIdOrderByCreatedAtDesc(userId);
-
-        Map<YearMonth, List<Transaction>> groupedByMonth = transactions.stream()
-                .collect(Collectors.groupingBy(t -> 
-                        YearMonth.from(t.getCreatedAt())
-                ));
-
-        List<MonthlySummaryResponse> monthlySummaries = new ArrayList<>();
-
-        for (int i = 0; i < months; i++) {
-            YearMonth month = YearMonth.now().minusMonths(i);
-            List<Transaction> monthTransactions = groupedByMonth.getOrDefault(month, new ArrayList<>());
-
-            BigDecimal income = monthTransactions.stream()
-                    .filter(t -> t.getType().equals("DEPOSIT"))
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal expense = monthTransactions.stream()
-                    .filter(t -> t.getType().equals("WITHDRAW"))
-                    .map(t -> t.getAmount().abs())
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal netChange = income.subtract(expense);
-
-            monthlySummaries.add(MonthlySummaryResponse.builder()
-                    .month(month)
-                    .income(income)
-                    .expense(expense)
-                    .netChange(netChange)
-                    .transactionCount(monthTransactions.size())
-                    .build());
-        }
+        List<MonthlySummaryResponse> monthlySummaries = monthlyRollups.monthlySummary(userId, months);
 
         logger.info("Monthly summary generated for {} months", months);
         return monthlySummaries;
@@ -134,21 +124,22 @@ public class AnalyticsService {
     public List<AccountSummaryResponse> getAccountSummary(Long userId) {
         logger.info("Generating account summary for user: {}", userId);
 
-        List<Account> accounts = accRepo.findByUserId(userId);
-
-        return accounts.stream()
-                .map(acc -> {
-                    int transactionCount = (int) txnRepo.findByAccountIdOrderByCreatedAtDesc(acc.getId())
-                            .stream().count();
-                    
-                    return AccountSummaryResponse.builder()
-                            .accountId(acc.getId())
-                            .name(acc.getName())
-                            .type(acc.getType())
-                            .balance(acc.getBalance())
-                            .transactionCount(transactionCount)
-                            .build();
-                })
+        List<AccountActivityRow> rows = accountStats.activityForUser(userId);
+        Map<Long, BigDecimal> slotTotals = balanceShards.slotTotals(
+                rows.stream().map(AccountActivityRow::getAccountId).toList());
+
+        return rows.stream()
+                .map(row -> AccountSummaryResponse.builder()
+                        .accountId(row.getAccountId())
+                        .name(row.getName())
+                        .type(row.getType())
+                        .balance(Money.toBigDecimal(Money.add(Money.cents(row.getBalance()),
+                                Money.cents(slotTotals.getOrDefault(row.getAccountId(), BigDecimal.ZERO)))))
+                        .transactionCount(row.getTransactionCount().intValue())
+                        .lastActivityAt(row.getLastActivityAt())
+                        .inflow(row.getInflow())
+                        .outflow(row.getOutflow())
+                        .build())
                 .toList();
     }
 }
@@ -4,12 +4,14 @@ import com.anudeep.bankingsystem.dto.auth.*;
 import com.anudeep.bankingsystem.dto.user.*;
 import com.anudeep.bankingsystem.entity.AppUser;
 import com.anudeep.bankingsystem.entity.Role;
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
 import com.anudeep.bankingsystem.exception.ApiException;
 import com.anudeep.bankingsystem.repository.UserRepository;
 import com.anudeep.bankingsystem.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,6 +24,7 @@ public class AuthService {
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void register(RegisterRequest req) {
@@ -116,6 +119,8 @@ public class AuthService {
 
         user.setFullName(req.getFullName());
         userRepository.save(user);
+        // Holder name shown in the recipient directory
+        eventPublisher.publishEvent(new AccountsChangedEvent(userId));
         
         logger.info("Profile updated successfully for user: {}", userId);
 
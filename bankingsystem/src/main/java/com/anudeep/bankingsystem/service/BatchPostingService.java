@@ -0,0 +1,346 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.account.AccountBalanceSnapshot;
+import com.anudeep.bankingsystem.dto.transaction.BatchItemResult;
+import com.anudeep.bankingsystem.dto.transaction.BatchTransactionItem;
+import com.anudeep.bankingsystem.dto.transaction.BatchTransactionResponse;
+import com.anudeep.bankingsystem.entity.Account;
+import com.anudeep.bankingsystem.entity.AppUser;
+import com.anudeep.bankingsystem.entity.Transaction;
+import com.anudeep.bankingsystem.event.CategorizationPayload;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.event.PostingEventPublisher;
+import com.anudeep.bankingsystem.event.TransactionPostedPayload;
+import com.anudeep.bankingsystem.exception.ApiException;
+import com.anudeep.bankingsystem.listener.CategorizationOutboxHandler;
+import com.anudeep.bankingsystem.listener.TransactionAuditOutboxHandler;
+import com.anudeep.bankingsystem.repository.AccountRepository;
+import com.anudeep.bankingsystem.repository.UserRepository;
+import com.anudeep.bankingsystem.util.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Posts a large list of deposits, withdrawals and transfers in one transaction.
+ * Items are validated in a single pass against an in-memory copy of the
+ * involved balances, balance changes are netted per account (one guarded
+ * UPDATE per account instead of per item) and the ledger rows are written
+ * with JDBC batching.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchPostingService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchPostingService.class);
+
+    private static final int LOOKUP_CHUNK = 1000;
+    private static final int CATEGORIZATION_CHUNK = 500;
+    private static final Set<String> TYPES = Set.of("DEPOSIT", "WITHDRAW", "TRANSFER");
+
+    private final AccountRepository accountRepo;
+    private final UserRepository userRepository;
+    private final PostingExecutor postingExecutor;
+    private final OutboxService outboxService;
+    private final AccountBalanceShards balanceShards;
+    private final PostingEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.posting.batch.max-items:10000}")
+    private int maxItems;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int flushEvery;
+
+    public BatchTransactionResponse post(Long userId, List<BatchTransactionItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ApiException("Batch must contain at least one item");
+        }
+        if (items.size() > maxItems) {
+            logger.warn("Batch of {} items rejected for user: {}", items.size(), userId);
+            throw new ApiException("Batch must not exceed " + maxItems + " items");
+        }
+
+        logger.info("Processing batch of {} items for user: {}", items.size(), userId);
+
+        // Only accounts that may be debited need the stripe locks; credits cannot fail
+        Set<Long> debited = new HashSet<>();
+        for (BatchTransactionItem item : items) {
+            if (item != null && item.getFromAccountId() != null && !"DEPOSIT".equals(normalize(item.getType()))) {
+                debited.add(item.getFromAccountId());
+            }
+        }
+
+        BatchTransactionResponse response = postingExecutor.execute(debited, () -> apply(userId, items));
+
+        logger.info("Batch completed for user: {} succeeded: {} failed: {}",
+                userId, response.getSucceeded(), response.getFailed());
+        return response;
+    }
+
+    private BatchTransactionResponse apply(Long userId, List<BatchTransactionItem> items) {
+        Map<Long, AccountBalanceSnapshot> accounts = loadAccounts(items);
+
+        // Simulated balances in cents, one mutable cell per account
+        Map<Long, long[]> balances = new HashMap<>();
+        accounts.values().forEach(a -> balances.put(a.getId(), new long[]{Money.cents(a.getBalance())}));
+        balanceShards.slotTotals(accounts.keySet()).forEach((id, total) -> {
+            long[] balance = balances.computeIfAbsent(id, k -> new long[1]);
+            balance[0] = Money.add(balance[0], Money.cents(total));
+        });
+
+        // Net change per account in cents, iterated in id order when applied
+        Map<Long, long[]> netDeltas = new TreeMap<>();
+
+        List<Transaction> rows = new ArrayList<>();
+        Transaction[] primary = new Transaction[items.size()];
+        String[] errors = new String[items.size()];
+
+        AppUser user = userRepository.getReferenceById(userId);
+
+        for (int i = 0; i < items.size(); i++) {
+            BatchTransactionItem item = items.get(i);
+            String error = validate(userId, item, accounts, balances);
+            if (error != null) {
+                errors[i] = error;
+                continue;
+            }
+
+            String type = normalize(item.getType());
+            Long fromId = item.getFromAccountId();
+            BigDecimal amount = item.getAmount();
+            long cents = Money.cents(amount);
+
+            switch (type) {
+                case "DEPOSIT" -> {
+                    adjust(fromId, cents, balances, netDeltas);
+                    primary[i] = row(user, fromId, null, amount, "DEPOSIT", item.getDescription());
+                    rows.add(primary[i]);
+                }
+                case "WITHDRAW" -> {
+                    adjust(fromId, -cents, balances, netDeltas);
+                    primary[i] = row(user, fromId, null, amount.negate(), "WITHDRAW", item.getDescription());
+                    rows.add(primary[i]);
+                }
+                default -> {
+                    Long toId = item.getToAccountId();
+                    adjust(fromId, -cents, balances, netDeltas);
+                    adjust(toId, cents, balances, netDeltas);
+                    primary[i] = row(user, fromId, toId, amount.negate(), "TRANSFER_OUT", item.getDescription());
+                    rows.add(primary[i]);
+                    rows.add(row(user, toId, fromId, amount, "TRANSFER_IN", item.getDescription()));
+                }
+            }
+        }
+
+        applyNetDeltas(userId, netDeltas);
+        insertRows(rows);
+
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        int succeeded = 0;
+        for (int i = 0; i < items.size(); i++) {
+            if (primary[i] != null) {
+                results.add(new BatchItemResult(i, true, primary[i].getId(), null));
+                succeeded++;
+            } else {
+                results.add(new BatchItemResult(i, false, null, errors[i]));
+            }
+        }
+
+        recordSideEffects(userId, rows, succeeded, items.size());
+
+        return BatchTransactionResponse.builder()
+                .total(items.size())
+                .succeeded(succeeded)
+                .failed(items.size() - succeeded)
+                .results(results)
+                .build();
+    }
+
+    private void recordSideEffects(Long userId, List<Transaction> rows, int succeeded, int total) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        eventPublisher.publish(PostingCommittedEvent.of(rows));
+
+        List<Long> ids = rows.stream().map(Transaction::getId).toList();
+        for (int i = 0; i < ids.size(); i += CATEGORIZATION_CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(i + CATEGORIZATION_CHUNK, ids.size()));
+            outboxService.publish(CategorizationOutboxHandler.EVENT_TYPE, chunk.get(0),
+                    new CategorizationPayload(new ArrayList<>(chunk)));
+        }
+
+        // One audit entry per batch; per-item confirmation emails are not sent for bulk postings
+        outboxService.publish(TransactionAuditOutboxHandler.EVENT_TYPE, ids.get(0),
+                new TransactionPostedPayload(userId, null, null, "BATCH_POSTING", null,
+                        "Batch posting: " + succeeded + " of " + total + " items succeeded"));
+    }
+
+    private String validate(Long userId, BatchTransactionItem item,
+                            Map<Long, AccountBalanceSnapshot> accounts, Map<Long, long[]> balances) {
+        if (item == null) {
+            return "Item is required";
+        }
+
+        String type = normalize(item.getType());
+        if (!TYPES.contains(type)) {
+            return "Unsupported type: " + item.getType();
+        }
+
+        BigDecimal amount = item.getAmount();
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            return "Amount must be positive";
+        }
+        if (amount.stripTrailingZeros().scale() > 2) {
+            return "Amount must have at most 2 decimal places";
+        }
+        if (!Money.fits(amount)) {
+            return "Amount is too large";
+        }
+
+        if (item.getDescription() == null || item.getDescription().isBlank()) {
+            return "Description is required";
+        }
+        if (item.getDescription().length() > 255) {
+            return "Description must not exceed 255 characters";
+        }
+
+        if (item.getFromAccountId() == null) {
+            return "From account ID is required";
+        }
+
+        AccountBalanceSnapshot from = accounts.get(item.getFromAccountId());
+        if (from == null) {
+            return "Account not found";
+        }
+        if (!from.getOwnerId().equals(userId)) {
+            return "Not your account";
+        }
+
+        if ("TRANSFER".equals(type)) {
+            Long toId = item.getToAccountId();
+            if (toId == null) {
+                return "To account ID is required for transfer";
+            }
+            if (toId.equals(item.getFromAccountId())) {
+                return "Cannot transfer to same account";
+            }
+            if (!accounts.containsKey(toId)) {
+                return "To account not found";
+            }
+        }
+
+        long cents = Money.cents(amount);
+        if (!"DEPOSIT".equals(type) && balances.get(from.getId())[0] < cents) {
+            return "Insufficient balance";
+        }
+
+        // The credited balance must stay within the range the simulation can hold
+        Long creditedId = "DEPOSIT".equals(type) ? from.getId()
+                : "TRANSFER".equals(type) ? item.getToAccountId() : null;
+        if (creditedId != null && balances.get(creditedId)[0] > Long.MAX_VALUE - cents) {
+            return "Balance limit exceeded";
+        }
+
+        return null;
+    }
+
+    private Map<Long, AccountBalanceSnapshot> loadAccounts(List<BatchTransactionItem> items) {
+        Set<Long> ids = new HashSet<>();
+        for (BatchTransactionItem item : items) {
+            if (item == null) {
+                continue;
+            }
+            if (item.getFromAccountId() != null) {
+                ids.add(item.getFromAccountId());
+            }
+            if (item.getToAccountId() != null) {
+                ids.add(item.getToAccountId());
+            }
+        }
+
+        Map<Long, AccountBalanceSnapshot> accounts = new HashMap<>();
+        List<Long> idList = new ArrayList<>(ids);
+        for (int i = 0; i < idList.size(); i += LOOKUP_CHUNK) {
+            List<Long> chunk = idList.subList(i, Math.min(i + LOOKUP_CHUNK, idList.size()));
+            accountRepo.findBalanceSnapshots(chunk).forEach(a -> accounts.put(a.getId(), a));
+        }
+        return accounts;
+    }
+
+    private void applyNetDeltas(Long userId, Map<Long, long[]> netDeltas) {
+        LocalDateTime now = LocalDateTime.now();
+
+        netDeltas.forEach((accountId, cents) -> {
+            if (cents[0] == 0) {
+                return;
+            }
+
+            BigDecimal delta = Money.toBigDecimal(cents[0]);
+            boolean applied;
+            if (cents[0] < 0) {
+                // Slot credits were counted in the simulated balance; fold them in before the debit
+                balanceShards.consolidate(accountId);
+                applied = accountRepo.applyOwnedDelta(accountId, userId, delta, now) == 1;
+            } else if (balanceShards.isSharded(accountId)) {
+                applied = balanceShards.credit(accountId, delta);
+            } else {
+                applied = accountRepo.applyDelta(accountId, delta, now) == 1;
+            }
+
+            if (!applied) {
+                // The balance moved under us (e.g. another instance); the executor retries the whole batch
+                logger.warn("Net delta {} could not be applied to account {}", delta, accountId);
+                throw new ObjectOptimisticLockingFailureException(Account.class, accountId);
+            }
+        });
+    }
+
+    // Snowflake ids are assigned before the INSERT, so each flush goes out as JDBC batches of hibernate.jdbc.batch_size
+    private void insertRows(List<Transaction> rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            entityManager.persist(rows.get(i));
+            if ((i + 1) % flushEvery == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Transaction row(AppUser user, Long accountId, Long relatedAccountId,
+                            BigDecimal amount, String type, String description) {
+        return Transaction.builder()
+                .account(accountRepo.getReferenceById(accountId))
+                .relatedAccount(relatedAccountId != null ? accountRepo.getReferenceById(relatedAccountId) : null)
+                .user(user)
+                .amount(amount)
+                .type(type)
+                .description(description)
+                .build();
+    }
+
+    private static void adjust(Long accountId, long deltaCents,
+                               Map<Long, long[]> balances, Map<Long, long[]> netDeltas) {
+        long[] balance = balances.get(accountId);
+        balance[0] = Money.add(balance[0], deltaCents);
+        long[] net = netDeltas.computeIfAbsent(accountId, k -> new long[1]);
+        net[0] = Money.add(net[0], deltaCents);
+    }
+
+    private static String normalize(String type) {
+        return type == null ? "" : type.trim().toUpperCase(Locale.ROOT);
+    }
+}
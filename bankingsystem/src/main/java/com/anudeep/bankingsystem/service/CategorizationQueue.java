@@ -0,0 +1,171 @@
+package com.anudeep.bankingsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background categorization stage. Ids of committed transactions arrive from
+ * the outbox relay and a small worker pool drains them in micro-batches
+ * through {@link AiService#categorizeBatch}. Ids of several outbox events
+ * share a batch; each event is only acknowledged once the batch holding its
+ * ids has been written, so the outbox keeps anything still in memory when
+ * the process stops. On shutdown the workers finish what is queued.
+ */
+@Component
+public class CategorizationQueue {
+    private static final Logger logger = LoggerFactory.getLogger(CategorizationQueue.class);
+
+    private record Pending(Long transactionId, long enqueuedAtNanos, CompletableFuture<Void> written) {
+    }
+
+    private final AiService aiService;
+    private final BlockingQueue<Pending> queue;
+    private final int workerCount;
+    private final int batchSize;
+    private final long ackTimeoutMs;
+
+    private final Counter processed;
+    private final Counter dropped;
+    private final Timer batchTimer;
+
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public CategorizationQueue(AiService aiService,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.categorization.queue-capacity:50000}") int capacity,
+                               @Value("${app.categorization.workers:2}") int workerCount,
+                               @Value("${app.categorization.batch-size:100}") int batchSize,
+                               @Value("${app.categorization.ack-timeout-ms:60000}") long ackTimeoutMs) {
+        this.aiService = aiService;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.workerCount = Math.max(1, workerCount);
+        this.batchSize = Math.max(1, batchSize);
+        this.ackTimeoutMs = ackTimeoutMs;
+
+        Gauge.builder("categorization.queue.depth", queue, BlockingQueue::size)
+                .description("Transactions waiting to be categorized")
+                .register(meterRegistry);
+        Gauge.builder("categorization.queue.lag", this, CategorizationQueue::lagSeconds)
+                .description("Age of the oldest transaction waiting to be categorized")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.processed = meterRegistry.counter("categorization.processed");
+        this.dropped = meterRegistry.counter("categorization.dropped");
+        this.batchTimer = meterRegistry.timer("categorization.batch");
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNo = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "categorizer-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::drainLoop);
+        }
+        logger.info("Categorization pipeline started with {} workers, batch size {}", workerCount, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Whatever is left stays unacknowledged in the outbox and is categorized after the restart
+        Pending p;
+        while ((p = queue.poll()) != null) {
+            p.written().completeExceptionally(new IllegalStateException("Categorization pipeline stopped"));
+        }
+    }
+
+    /**
+     * Queues the ids and waits until the batches holding them have been
+     * written. Throws if an id did not fit, the batch failed or the wait
+     * timed out; categorizing an id twice is harmless.
+     */
+    public void categorizeAndWait(Collection<Long> transactionIds) throws Exception {
+        if (!running) {
+            throw new IllegalStateException("Categorization pipeline stopped");
+        }
+
+        long now = System.nanoTime();
+        List<CompletableFuture<Void>> written = new ArrayList<>(transactionIds.size());
+        int rejected = 0;
+        for (Long id : transactionIds) {
+            Pending pending = new Pending(id, now, new CompletableFuture<>());
+            if (queue.offer(pending)) {
+                written.add(pending.written());
+            } else {
+                rejected++;
+            }
+        }
+        if (rejected > 0) {
+            dropped.increment(rejected);
+            logger.warn("Categorization queue full, {} of {} transactions not queued", rejected, transactionIds.size());
+            throw new IllegalStateException("Categorization queue is full");
+        }
+
+        try {
+            CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                List<Long> ids = batch.stream().map(Pending::transactionId).toList();
+                batchTimer.record(() -> aiService.categorizeBatch(ids));
+                processed.increment(ids.size());
+                batch.forEach(p -> p.written().complete(null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Categorization batch of {} transactions failed", batch.size(), e);
+                batch.forEach(p -> p.written().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private double lagSeconds() {
+        Pending head = queue.peek();
+        return head == null ? 0.0 : (System.nanoTime() - head.enqueuedAtNanos()) / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,239 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.analytics.AccountSummaryResponse;
+import com.anudeep.bankingsystem.dto.analytics.DashboardSnapshot;
+import com.anudeep.bankingsystem.dto.analytics.DashboardSummaryResponse;
+import com.anudeep.bankingsystem.dto.transaction.TransactionResponse;
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
+import com.anudeep.bankingsystem.event.CacheInvalidationBus;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.util.Money;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Per-user dashboard snapshots. A committed posting is applied to the cached
+ * snapshots it touches (totals, account balances and counters, recent rows)
+ * instead of dropping them, so a busy user's dashboard is loaded once per TTL.
+ * The TTL counts from the load, not from the last update, and bounds how long
+ * a delta that went wrong stays visible. Account changes drop the snapshot.
+ *
+ * Postings applied here are announced on the invalidation bus so that other
+ * instances, which did not see the posting, drop their copy.
+ */
+@Component
+public class DashboardSnapshotCache {
+    static final String CACHE_NAME = "analytics.dashboard";
+    static final int RECENT_TRANSACTIONS = 10;
+
+    private static final Comparator<TransactionResponse> NEWEST_FIRST = Comparator
+            .comparing(TransactionResponse::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(TransactionResponse::getId, Comparator.reverseOrder());
+
+    private record Entry(DashboardSnapshot snapshot, long loadedAtNanos) {
+    }
+
+    // Published for postings applied locally; only other instances act on it
+    private record Applied(String origin, Set<Long> userIds, Set<Long> accountIds) {
+    }
+
+    private final Cache<Long, Entry> byUser;
+    private final CacheInvalidationBus invalidationBus;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // account id -> owner, for the accounts of cached users
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+
+    public DashboardSnapshotCache(CacheInvalidationBus invalidationBus,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.analytics.dashboard.max-users:10000}") long maxUsers,
+                                  @Value("${app.analytics.dashboard.ttl-seconds:300}") long ttlSeconds) {
+        this.invalidationBus = invalidationBus;
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfter(new Expiry<Long, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Long userId, Entry entry, long currentTime) {
+                        return ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long userId, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long userId, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byUser, CACHE_NAME);
+        invalidationBus.subscribe(CACHE_NAME, key -> {
+            if (key instanceof Applied applied) {
+                if (!instanceId.equals(applied.origin())) {
+                    Set<Long> users = new HashSet<>(applied.userIds());
+                    applied.accountIds().forEach(accountId -> addOwner(accountId, users));
+                    byUser.invalidateAll(users);
+                }
+            } else {
+                byUser.invalidate((Long) key);
+            }
+        });
+    }
+
+    /**
+     * The user's snapshot, loaded with the given function on a miss. The
+     * returned object is shared and must not be modified.
+     */
+    public DashboardSnapshot get(Long userId, Function<Long, DashboardSnapshot> loader) {
+        return byUser.get(userId, id -> {
+            DashboardSnapshot snapshot = loader.apply(id);
+            snapshot.getAccounts().forEach(a -> owners.put(a.getAccountId(), id));
+            return new Entry(snapshot, System.nanoTime());
+        }).snapshot();
+    }
+
+    // Ordered before UserDataVersions, so a new ETag is never paired with a stale snapshot
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostingCommitted(PostingCommittedEvent event) {
+        Set<Long> users = new HashSet<>();
+        Set<Long> accountIds = new HashSet<>();
+        for (PostedTransaction t : event.getTransactions()) {
+            users.add(t.getUserId());
+            accountIds.add(t.getAccountId());
+        }
+
+        Set<Long> affected = new HashSet<>(users);
+        accountIds.forEach(accountId -> addOwner(accountId, affected));
+
+        for (Long userId : affected) {
+            byUser.asMap().computeIfPresent(userId, (id, entry) -> {
+                // A load that finished after the posting was built may already
+                // include its rows; such a snapshot is reloaded instead
+                if (entry.loadedAtNanos() - event.getPublishedAtNanos() >= 0) {
+                    return null;
+                }
+                return new Entry(apply(entry.snapshot(), id, event.getTransactions()), entry.loadedAtNanos());
+            });
+        }
+        invalidationBus.publish(CACHE_NAME, new Applied(instanceId, users, accountIds));
+    }
+
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        invalidationBus.publish(CACHE_NAME, event.getUserId());
+    }
+
+    /**
+     * A copy of the snapshot with the posted rows applied: the user's own rows
+     * count towards the totals and recent transactions, rows on the user's
+     * accounts towards the balances and account counters.
+     */
+    static DashboardSnapshot apply(DashboardSnapshot snapshot, Long userId, Collection<PostedTransaction> rows) {
+        DashboardSummaryResponse s = snapshot.getSummary();
+        long income = Money.cents(s.getTotalIncome());
+        long expense = Money.cents(s.getTotalExpense());
+        long totalBalance = Money.cents(s.getTotalBalance());
+        int count = s.getTransactionCount();
+
+        Map<Long, AccountSummaryResponse> accounts = new LinkedHashMap<>();
+        snapshot.getAccounts().forEach(a -> accounts.put(a.getAccountId(), a.toBuilder().build()));
+
+        // account id -> {balance, inflow, outflow} in cents, written back once
+        Map<Long, long[]> accountCents = new HashMap<>();
+
+        List<TransactionResponse> recent = new ArrayList<>(snapshot.getRecentTransactions());
+        Set<Long> recentIds = new HashSet<>();
+        recent.forEach(r -> recentIds.add(r.getId()));
+
+        for (PostedTransaction t : rows) {
+            long amount = Money.cents(t.getAmount());
+            if (userId.equals(t.getUserId())) {
+                count++;
+                if ("DEPOSIT".equals(t.getType())) {
+                    income = Money.add(income, amount);
+                } else if ("WITHDRAW".equals(t.getType())) {
+                    expense = Money.subtract(expense, amount);
+                }
+                if (recentIds.add(t.getId())) {
+                    recent.add(new TransactionResponse(t.getId(), t.getAccountId(), t.getAmount(),
+                            t.getType(), t.getDescription(), t.getCreatedAt()));
+                }
+            }
+
+            AccountSummaryResponse account = accounts.get(t.getAccountId());
+            if (account != null) {
+                totalBalance = Money.add(totalBalance, amount);
+                long[] cents = accountCents.computeIfAbsent(t.getAccountId(), id -> new long[]{
+                        Money.cents(account.getBalance()), Money.cents(account.getInflow()), Money.cents(account.getOutflow())});
+                cents[0] = Money.add(cents[0], amount);
+                if (amount > 0) {
+                    cents[1] = Money.add(cents[1], amount);
+                } else {
+                    cents[2] = Money.subtract(cents[2], amount);
+                }
+                account.setTransactionCount(account.getTransactionCount() + 1);
+                if (account.getLastActivityAt() == null || t.getCreatedAt().isAfter(account.getLastActivityAt())) {
+                    account.setLastActivityAt(t.getCreatedAt());
+                }
+            }
+        }
+
+        accountCents.forEach((accountId, cents) -> {
+            AccountSummaryResponse account = accounts.get(accountId);
+            account.setBalance(Money.toBigDecimal(cents[0]));
+            account.setInflow(Money.toBigDecimal(cents[1]));
+            account.setOutflow(Money.toBigDecimal(cents[2]));
+        });
+
+        recent.sort(NEWEST_FIRST);
+        return DashboardSnapshot.builder()
+                .summary(DashboardSummaryResponse.builder()
+                        .totalBalance(Money.toBigDecimal(totalBalance))
+                        .totalIncome(Money.toBigDecimal(income))
+                        .totalExpense(Money.toBigDecimal(expense))
+                        .netSavings(Money.toBigDecimal(Money.subtract(income, expense)))
+                        .transactionCount(count)
+                        .accountCount(s.getAccountCount())
+                        .build())
+                .accounts(List.copyOf(accounts.values()))
+                .recentTransactions(List.copyOf(recent.subList(0, Math.min(recent.size(), RECENT_TRANSACTIONS))))
+                .build();
+    }
+
+    private void addOwner(Long accountId, Set<Long> users) {
+        Long owner = owners.get(accountId);
+        if (owner != null) {
+            users.add(owner);
+        }
+    }
+
+    private void onRemoval(Long userId, Entry entry, RemovalCause cause) {
+        if (entry == null || cause == RemovalCause.REPLACED || byUser.asMap().containsKey(userId)) {
+            return;
+        }
+        entry.snapshot().getAccounts().forEach(a -> owners.remove(a.getAccountId(), userId));
+    }
+}
@@ -0,0 +1,204 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.entity.IdempotencyKey;
+import com.anudeep.bankingsystem.exception.ApiException;
+import com.anudeep.bankingsystem.exception.ConflictException;
+import com.anudeep.bankingsystem.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key bookkeeping for the posting endpoints. Recently completed
+ * keys are answered from a bounded in-memory LRU; the idempotency_keys table
+ * is the durable record shared by all instances.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    /**
+     * A key reserved by the request running on the current thread.
+     */
+    public static final class Reservation {
+        private final Long id;
+        private final Long userId;
+        private final String key;
+        private final String requestHash;
+        private volatile String responseBody;
+
+        private Reservation(Long id, Long userId, String key, String requestHash) {
+            this.id = id;
+            this.userId = userId;
+            this.key = key;
+            this.requestHash = requestHash;
+        }
+    }
+
+    /**
+     * Either a fresh reservation or the stored body of an earlier identical request.
+     */
+    public record Outcome(Reservation reservation, String replayBody) {
+    }
+
+    private record Completed(String requestHash, String body, long storedAtMillis) {
+    }
+
+    private static final ThreadLocal<Reservation> CURRENT = new ThreadLocal<>();
+
+    private final IdempotencyKeyRepository repo;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate newTx;
+    private final Map<String, Completed> recent;
+    private final long ttlMillis;
+
+    public IdempotencyService(IdempotencyKeyRepository repo,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.newTx = new TransactionTemplate(transactionManager);
+        this.newTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttlMillis = TimeUnit.HOURS.toMillis(ttlHours);
+
+        int maxEntries = Math.max(1, cacheSize);
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public Outcome begin(Long userId, String key, String requestHash) {
+        Completed cached = recent.get(cacheKey(userId, key));
+        if (cached != null && System.currentTimeMillis() - cached.storedAtMillis() < ttlMillis) {
+            checkSameRequest(cached.requestHash(), requestHash);
+            return new Outcome(null, cached.body());
+        }
+
+        try {
+            IdempotencyKey row = newTx.execute(status -> repo.saveAndFlush(IdempotencyKey.builder()
+                    .userId(userId)
+                    .idemKey(key)
+                    .requestHash(requestHash)
+                    .build()));
+            return new Outcome(new Reservation(row.getId(), userId, key, requestHash), null);
+        } catch (DataIntegrityViolationException e) {
+            // Seen before, on this or another instance
+            IdempotencyKey existing = repo.findByUserIdAndIdemKey(userId, key)
+                    .orElseThrow(() -> new ConflictException("A request with this Idempotency-Key is already in progress"));
+
+            checkSameRequest(existing.getRequestHash(), requestHash);
+            if (existing.getResponseBody() == null) {
+                logger.warn("Idempotency-Key {} of user {} is still in progress", key, userId);
+                throw new ConflictException("A request with this Idempotency-Key is already in progress");
+            }
+
+            remember(userId, key, requestHash, existing.getResponseBody());
+            return new Outcome(null, existing.getResponseBody());
+        }
+    }
+
+    public void activate(Reservation reservation) {
+        CURRENT.set(reservation);
+    }
+
+    public void deactivate() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Wraps a posting so the reserved key of the current request is completed
+     * in the same transaction as the posting itself.
+     */
+    public <T> Supplier<T> bindToCurrentRequest(Supplier<T> work) {
+        Reservation reservation = CURRENT.get();
+        if (reservation == null) {
+            return work;
+        }
+        return () -> {
+            T result = work.get();
+            complete(reservation, result);
+            return result;
+        };
+    }
+
+    /**
+     * Called once the request succeeded; caches the stored response for fast replays.
+     */
+    public void finish(Reservation reservation, Object response) {
+        if (reservation.responseBody == null) {
+            // The endpoint did not go through a bound posting; complete the key on its own
+            newTx.executeWithoutResult(status -> complete(reservation, response));
+        }
+        remember(reservation.userId, reservation.key, reservation.requestHash, reservation.responseBody);
+    }
+
+    /**
+     * Called when the request failed; frees the key so the client can retry it.
+     */
+    public void abandon(Reservation reservation) {
+        try {
+            repo.release(reservation.id);
+        } catch (Exception e) {
+            logger.warn("Could not release Idempotency-Key {} of user {}: {}", reservation.key, reservation.userId, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = repo.deleteCreatedBefore(LocalDateTime.now().minus(Duration.ofMillis(ttlMillis)));
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private void complete(Reservation reservation, Object response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response for Idempotency-Key " + reservation.key, e);
+        }
+        // A key released or purged meanwhile may already be reserved again; fail the posting instead of committing it twice
+        if (repo.complete(reservation.id, body, LocalDateTime.now()) == 0) {
+            throw new ConflictException("Idempotency-Key is no longer reserved for this request, please retry");
+        }
+        reservation.responseBody = body;
+    }
+
+    private void remember(Long userId, String key, String requestHash, String body) {
+        recent.put(cacheKey(userId, key), new Completed(requestHash, body, System.currentTimeMillis()));
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new ApiException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private static String cacheKey(Long userId, String key) {
+        return userId + ":" + key;
+    }
+}
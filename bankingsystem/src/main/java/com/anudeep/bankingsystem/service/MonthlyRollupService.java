@@ -0,0 +1,221 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.analytics.MonthlySummaryResponse;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * Maintains user_monthly_rollup, the per user, month and type totals behind
+ * the monthly analytics. Every posting adds its rows in the posting's own
+ * transaction (the event is handled synchronously, inside any savepoint), so
+ * the rollup commits or rolls back with the ledger. Rows on balance-sharded
+ * accounts go to one of as many extra slot rows as the account has balance
+ * slots, so concurrent credits to a hot account do not queue on the user's
+ * rollup row; reads sum over the slots. A backfill rebuilds users whose
+ * rollup does not match their ledger, e.g. rows posted before the table
+ * existed.
+ */
+@Service
+public class MonthlyRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyRollupService.class);
+
+    record Key(Long userId, int monthKey, String type, int slot) {
+    }
+
+    record MonthTotals(int monthKey, BigDecimal income, BigDecimal expense, long count) {
+    }
+
+    static final class Delta {
+        long amountCents;
+        long count;
+    }
+
+    // Keys are applied in this order so concurrent postings lock rollup rows consistently
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::userId)
+            .thenComparingInt(Key::monthKey)
+            .thenComparing(Key::type)
+            .thenComparingInt(Key::slot);
+
+    private static final String UPSERT =
+            "INSERT INTO user_monthly_rollup (user_id, month_key, type, slot, amount_total, txn_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?) AS new " +
+            "ON DUPLICATE KEY UPDATE amount_total = amount_total + new.amount_total, txn_count = txn_count + new.txn_count";
+
+    private static final String MONTH_TOTALS =
+            "SELECT month_key, " +
+            "SUM(CASE WHEN type = 'DEPOSIT' THEN amount_total ELSE 0 END), " +
+            "SUM(CASE WHEN type = 'WITHDRAW' THEN -amount_total ELSE 0 END), " +
+            "SUM(txn_count) " +
+            "FROM user_monthly_rollup WHERE user_id = ? AND month_key >= ? GROUP BY month_key";
+
+    // Users whose rollup row count differs from their ledger (or who have none)
+    private static final String OUT_OF_DATE_USERS =
+            "SELECT t.user_id FROM (SELECT user_id, COUNT(*) AS c FROM transactions GROUP BY user_id) t " +
+            "LEFT JOIN (SELECT user_id, SUM(txn_count) AS c FROM user_monthly_rollup GROUP BY user_id) r " +
+            "ON r.user_id = t.user_id WHERE r.c IS NULL OR r.c <> t.c";
+
+    private static final String REBUILD_USER =
+            "INSERT INTO user_monthly_rollup (user_id, month_key, type, slot, amount_total, txn_count) " +
+            "SELECT user_id, YEAR(created_at) * 100 + MONTH(created_at), type, 0, SUM(amount), COUNT(*) " +
+            "FROM transactions WHERE user_id = ? " +
+            "GROUP BY user_id, YEAR(created_at) * 100 + MONTH(created_at), type";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountBalanceShards balanceShards;
+    private final TransactionTemplate txTemplate;
+    private final boolean backfillOnStartup;
+
+    public MonthlyRollupService(JdbcTemplate jdbcTemplate,
+                                AccountBalanceShards balanceShards,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.analytics.rollup.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.balanceShards = balanceShards;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    @EventListener
+    public void onPosting(PostingCommittedEvent event) {
+        Map<Key, Delta> deltas = aggregate(event.getTransactions(), balanceShards::slotsOf);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((k, d) -> args.add(new Object[]{k.userId(), k.monthKey(), k.type(), k.slot(), Money.toBigDecimal(d.amountCents), d.count}));
+        jdbcTemplate.batchUpdate(UPSERT, args);
+    }
+
+    /**
+     * Income, expense and row count for the current month and the months - 1
+     * before it, newest first. Reads at most one grouped row per month.
+     */
+    public List<MonthlySummaryResponse> monthlySummary(Long userId, int months) {
+        if (months <= 0) {
+            return List.of();
+        }
+
+        YearMonth current = YearMonth.now();
+        List<MonthTotals> totals = jdbcTemplate.query(MONTH_TOTALS,
+                (rs, i) -> new MonthTotals(rs.getInt(1), rs.getBigDecimal(2), rs.getBigDecimal(3), rs.getLong(4)),
+                userId, monthKey(current.minusMonths(months - 1)));
+
+        return toSummaries(totals, current, months);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInBackground() {
+        if (!backfillOnStartup) {
+            return;
+        }
+
+        Thread t = new Thread(() -> {
+            try {
+                backfill();
+            } catch (Exception e) {
+                logger.error("Monthly rollup backfill failed", e);
+            }
+        }, "monthly-rollup-backfill");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Rebuilds every user whose rollup is out of date; returns how many were rebuilt.
+     */
+    public int backfill() {
+        List<Long> userIds = jdbcTemplate.queryForList(OUT_OF_DATE_USERS, Long.class);
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+
+        logger.info("Backfilling monthly rollup for {} users", userIds.size());
+        int rebuilt = 0;
+        for (Long userId : userIds) {
+            try {
+                rebuildUser(userId);
+                rebuilt++;
+            } catch (Exception e) {
+                // Left out of date; picked up again by the next backfill
+                logger.warn("Monthly rollup backfill for user {} failed: {}", userId, e.getMessage());
+            }
+        }
+        logger.info("Monthly rollup backfill finished: {} of {} users rebuilt", rebuilt, userIds.size());
+        return rebuilt;
+    }
+
+    /**
+     * Recomputes a user's rollup from the ledger. The delete locks the user's
+     * rollup rows and the INSERT ... SELECT locks the ledger rows it reads, so
+     * concurrent postings for the user wait and then add on top of the result.
+     */
+    public void rebuildUser(Long userId) {
+        txTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM user_monthly_rollup WHERE user_id = ?", userId);
+            jdbcTemplate.update(REBUILD_USER, userId);
+        });
+    }
+
+    // slotsOf gives the balance slot count of an account, 0 if it is not sharded
+    static Map<Key, Delta> aggregate(Collection<PostedTransaction> rows, ToIntFunction<Long> slotsOf) {
+        Map<Key, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (PostedTransaction t : rows) {
+            int slots = slotsOf.applyAsInt(t.getAccountId());
+            int slot = slots > 0 ? 1 + ThreadLocalRandom.current().nextInt(slots) : 0;
+            Key key = new Key(t.getUserId(), monthKey(t.getCreatedAt()), t.getType(), slot);
+            Delta d = deltas.computeIfAbsent(key, k -> new Delta());
+            d.amountCents = Money.add(d.amountCents, Money.cents(t.getAmount()));
+            d.count++;
+        }
+        return deltas;
+    }
+
+    static List<MonthlySummaryResponse> toSummaries(Collection<MonthTotals> totals, YearMonth current, int months) {
+        Map<Integer, MonthTotals> byMonth = new HashMap<>();
+        totals.forEach(t -> byMonth.put(t.monthKey(), t));
+
+        List<MonthlySummaryResponse> summaries = new ArrayList<>(months);
+        for (int i = 0; i < months; i++) {
+            YearMonth month = current.minusMonths(i);
+            MonthTotals t = byMonth.get(monthKey(month));
+
+            BigDecimal income = t != null ? t.income() : BigDecimal.ZERO;
+            BigDecimal expense = t != null ? t.expense() : BigDecimal.ZERO;
+
+            summaries.add(MonthlySummaryResponse.builder()
+                    .month(month)
+                    .income(income)
+                    .expense(expense)
+                    .netChange(income.subtract(expense))
+                    .transactionCount(t != null ? (int) t.count() : 0)
+                    .build());
+        }
+        return summaries;
+    }
+
+    static int monthKey(LocalDateTime at) {
+        return at.getYear() * 100 + at.getMonthValue();
+    }
+
+    static int monthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+}
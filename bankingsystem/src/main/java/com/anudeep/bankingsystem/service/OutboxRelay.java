@@ -0,0 +1,218 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.entity.OutboxEvent;
+import com.anudeep.bankingsystem.event.OutboxEventHandler;
+import com.anudeep.bankingsystem.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Polls outbox_events, claims a batch with SELECT ... FOR UPDATE SKIP LOCKED
+ * (so several instances can relay side by side), runs the handlers on a
+ * bounded pool and marks finished events done in batches. Failed events are
+ * retried with exponential backoff until app.outbox.max-attempts, then
+ * parked as FAILED. A claim older than app.outbox.stale-claim-ms counts as a
+ * failed attempt and is released with the same backoff; the threshold must
+ * stay above the longest handler run.
+ *
+ * The relay polls on its own thread rather than the shared scheduler, and
+ * never waits for handlers: it only claims as many events as the pool has
+ * room for, so a slow handler or a backlog holds up neither the other
+ * scheduled jobs nor the handlers of unrelated events.
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxRepo;
+    private final Map<String, OutboxEventHandler> handlers;
+    private final TransactionTemplate txTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService relayThread;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long pollIntervalMs;
+    private final long staleClaimMs;
+
+    // Events claimed but not finished; the relay claims no more than there are free permits
+    private final Semaphore inFlight;
+    // Handled events waiting to be marked done by the relay thread
+    private final Queue<Long> done = new ConcurrentLinkedQueue<>();
+
+    public OutboxRelay(OutboxEventRepository outboxRepo,
+                       List<OutboxEventHandler> handlers,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.workers:4}") int workers,
+                       @Value("${app.outbox.max-attempts:8}") int maxAttempts,
+                       @Value("${app.outbox.poll-interval-ms:500}") long pollIntervalMs,
+                       @Value("${app.outbox.stale-claim-ms:900000}") long staleClaimMs) {
+        this.outboxRepo = outboxRepo;
+        this.handlers = handlers.stream()
+                .collect(Collectors.toMap(OutboxEventHandler::eventType, Function.identity()));
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.pollIntervalMs = Math.max(1, pollIntervalMs);
+        this.staleClaimMs = staleClaimMs;
+
+        int poolSize = Math.max(1, workers);
+        // Every worker busy plus one batch waiting for them
+        this.inFlight = new Semaphore(poolSize + this.batchSize);
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(r, "outbox-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.relayThread = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "outbox-relay");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        relayThread.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (Exception e) {
+                // A failed run must not cancel the schedule
+                logger.error("Outbox poll failed", e);
+            }
+        }, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void poll() {
+        flushDone();
+        int free;
+        while ((free = inFlight.availablePermits()) > 0) {
+            int limit = Math.min(free, batchSize);
+            List<OutboxEvent> events = claimBatch(limit);
+            events.forEach(this::dispatch);
+            if (events.size() < limit) {
+                break;
+            }
+            flushDone();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.housekeeping-interval-ms:60000}")
+    public void housekeeping() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(Duration.ofMillis(staleClaimMs));
+        int failed = outboxRepo.failStale(staleBefore, maxAttempts);
+        int released = outboxRepo.releaseStale(staleBefore, now);
+        int purged = outboxRepo.deleteProcessedBefore(now.minusHours(24));
+        if (failed > 0) {
+            logger.error("Outbox housekeeping: {} stale claims had no attempts left and were parked as FAILED", failed);
+        }
+        if (released > 0 || purged > 0) {
+            logger.info("Outbox housekeeping: released {} stale claims, purged {} processed events", released, purged);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        relayThread.shutdown();
+        executor.shutdown();
+        try {
+            relayThread.awaitTermination(5, TimeUnit.SECONDS);
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Events still running stay claimed and are released as stale
+        flushDone();
+    }
+
+    private List<OutboxEvent> claimBatch(int limit) {
+        return txTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = outboxRepo.lockNextBatch(now, limit);
+            if (!events.isEmpty()) {
+                outboxRepo.markClaimed(events.stream().map(OutboxEvent::getId).toList(), now);
+            }
+            return events;
+        });
+    }
+
+    private void dispatch(OutboxEvent event) {
+        inFlight.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    handle(event);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the claim goes stale and is released
+            inFlight.release();
+        }
+    }
+
+    private void flushDone() {
+        List<Long> ids = new ArrayList<>();
+        Long id;
+        while ((id = done.poll()) != null) {
+            ids.add(id);
+        }
+        if (!ids.isEmpty()) {
+            outboxRepo.markDone(ids, LocalDateTime.now());
+            logger.debug("Marked {} outbox events done", ids.size());
+        }
+    }
+
+    private void handle(OutboxEvent event) {
+        OutboxEventHandler handler = handlers.get(event.getEventType());
+        try {
+            if (handler == null) {
+                throw new IllegalStateException("No handler for event type " + event.getEventType());
+            }
+            handler.handle(event);
+            done.add(event.getId());
+            meterRegistry.counter("outbox.dispatched", "type", event.getEventType()).increment();
+        } catch (Exception e) {
+            int attempts = event.getAttempts() + 1;
+            String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+
+            if (attempts >= maxAttempts) {
+                logger.error("Outbox event {} ({}) failed permanently after {} attempts", event.getId(), event.getEventType(), attempts, e);
+                outboxRepo.markFailed(event.getId(), attempts, error);
+                meterRegistry.counter("outbox.failed", "type", event.getEventType()).increment();
+            } else {
+                long backoffSeconds = 1L << Math.min(attempts, 10);
+                logger.warn("Outbox event {} ({}) failed, retrying in {}s: {}", event.getId(), event.getEventType(), backoffSeconds, error);
+                outboxRepo.markForRetry(event.getId(), attempts, LocalDateTime.now().plusSeconds(backoffSeconds), error);
+                meterRegistry.counter("outbox.retried", "type", event.getEventType()).increment();
+            }
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 255 ? message : message.substring(0, 255);
+    }
+}
@@ -0,0 +1,40 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.entity.OutboxEvent;
+import com.anudeep.bankingsystem.exception.ApiException;
+import com.anudeep.bankingsystem.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxRepo;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Records a side effect in the caller's transaction; it is dispatched by
+     * {@link OutboxRelay} only if that transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String eventType, Long aggregateId, Object payload) {
+        try {
+            outboxRepo.save(OutboxEvent.builder()
+                    .eventType(eventType)
+                    .aggregateId(aggregateId)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new ApiException("Could not serialize " + eventType + " event", e);
+        }
+    }
+
+    public <T> T readPayload(OutboxEvent event, Class<T> type) throws JsonProcessingException {
+        return objectMapper.readValue(event.getPayload(), type);
+    }
+}
@@ -0,0 +1,140 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.exception.RetryLaterException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs a balance posting under the account stripe locks and in its own
+ * transaction. The locks are held until after commit so the next posting on
+ * the same account always reads the committed balance. Transient failures
+ * (optimistic version conflicts, deadlocks, lock wait timeouts) are retried
+ * with jittered exponential backoff within a per-call attempt and time budget.
+ */
+@Component
+public class PostingExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(PostingExecutor.class);
+
+    // MySQL: ER_LOCK_DEADLOCK, ER_LOCK_WAIT_TIMEOUT; SQLState 40001: serialization failure
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final String SERIALIZATION_FAILURE = "40001";
+
+    private final AccountLockManager lockManager;
+    private final TransactionTemplate txTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter giveUps;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final long budgetMs;
+
+    public PostingExecutor(AccountLockManager lockManager,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.posting.max-attempts:5}") int maxAttempts,
+                           @Value("${app.posting.retry.backoff-ms:20}") long backoffMs,
+                           @Value("${app.posting.retry.max-backoff-ms:500}") long maxBackoffMs,
+                           @Value("${app.posting.retry.budget-ms:3000}") long budgetMs) {
+        this.lockManager = lockManager;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.giveUps = meterRegistry.counter("posting.giveups");
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = Math.max(1, backoffMs);
+        this.maxBackoffMs = Math.max(this.backoffMs, maxBackoffMs);
+        this.budgetMs = budgetMs;
+    }
+
+    public <T> T execute(Collection<Long> accountIds, Supplier<T> work) {
+        long startedAt = System.currentTimeMillis();
+        List<ReentrantLock> held = lockManager.acquire(accountIds);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return txTemplate.execute(status -> work.get());
+                } catch (RuntimeException e) {
+                    String reason = transientReason(e);
+                    if (reason == null) {
+                        throw e;
+                    }
+
+                    long delay = backoff(attempt);
+                    long elapsed = System.currentTimeMillis() - startedAt;
+                    if (attempt >= maxAttempts || elapsed + delay > budgetMs) {
+                        giveUps.increment();
+                        logger.warn("Posting on accounts {} gave up after {} attempts in {} ms ({}): {}",
+                                accountIds, attempt, elapsed, reason, e.getMessage());
+                        throw new RetryLaterException("Account is busy, please retry", e);
+                    }
+
+                    meterRegistry.counter("posting.retries", "reason", reason).increment();
+                    logger.debug("Transient {} on accounts {}, retrying in {} ms (attempt {})",
+                            reason, accountIds, delay, attempt + 1);
+                    sleep(delay);
+                }
+            }
+        } finally {
+            lockManager.release(held);
+        }
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^(attempt-1))]
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, backoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long delayMs) {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RetryLaterException("Interrupted while retrying posting", e);
+        }
+    }
+
+    /**
+     * Returns a metric tag for a failure worth retrying, or null if the failure is permanent.
+     */
+    static String transientReason(Throwable e) {
+        if (e instanceof OptimisticLockingFailureException) {
+            return "optimistic";
+        }
+
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql) {
+                if (sql.getErrorCode() == MYSQL_DEADLOCK) {
+                    return "deadlock";
+                }
+                if (sql.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT) {
+                    return "lock_timeout";
+                }
+                if (SERIALIZATION_FAILURE.equals(sql.getSQLState())) {
+                    return "serialization";
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+
+        // CannotAcquireLockException, DeadlockLoserDataAccessException, ...
+        return e instanceof PessimisticLockingFailureException ? "pessimistic" : null;
+    }
+}
@@ -0,0 +1,188 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.PaginatedResponse;
+import com.anudeep.bankingsystem.dto.account.RecipientResponse;
+import com.anudeep.bankingsystem.dto.account.RecipientRow;
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
+import com.anudeep.bankingsystem.event.CacheInvalidationBus;
+import com.anudeep.bankingsystem.exception.ApiException;
+import com.anudeep.bankingsystem.repository.AccountRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Transfer recipient lookup. Every account is indexed in a sorted map under
+ * its account name and its holder's name (and every word of both), so a
+ * prefix search is a range scan whose cost depends on the page requested,
+ * not on the number of accounts. The index is loaded at startup, refreshed
+ * per user when their accounts or name change, and rebuilt periodically.
+ */
+@Service
+public class RecipientDirectory {
+    private static final Logger logger = LoggerFactory.getLogger(RecipientDirectory.class);
+
+    static final String CACHE_NAME = "accounts.recipients";
+    public static final int MAX_PAGE_SIZE = 50;
+
+    private record Recipient(Long id, Long ownerId, String name, String holderName) {
+    }
+
+    private final AccountRepository accountRepo;
+    private final CacheInvalidationBus invalidationBus;
+
+    // "<token>\0<account id>" -> recipient
+    private volatile ConcurrentSkipListMap<String, Recipient> index = new ConcurrentSkipListMap<>();
+    // owner -> keys of their accounts, to replace a user's entries on refresh
+    private volatile Map<Long, List<String>> keysByOwner = new HashMap<>();
+    // Users refreshed while a rebuild was loading; re-applied on top of it
+    private Set<Long> refreshedDuringRebuild;
+
+    public RecipientDirectory(AccountRepository accountRepo,
+                              CacheInvalidationBus invalidationBus,
+                              MeterRegistry meterRegistry) {
+        this.accountRepo = accountRepo;
+        this.invalidationBus = invalidationBus;
+
+        invalidationBus.subscribe(CACHE_NAME, key -> refreshUser((Long) key));
+        Gauge.builder("accounts.recipients.keys", this, d -> d.index.size())
+                .description("Entries in the recipient directory index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One page of other users' accounts whose name or holder name has a word
+     * starting with the query, in key order. Totals are not computed (-1).
+     */
+    public PaginatedResponse<RecipientResponse> search(Long userId, String query, int page, int size) {
+        if (page < 0) {
+            throw new ApiException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ApiException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        String prefix = normalize(query);
+        NavigableMap<String, Recipient> range = prefix.isEmpty()
+                ? index
+                : index.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+
+        long skip = (long) page * size;
+        Set<Long> seen = new HashSet<>();
+        List<RecipientResponse> content = new ArrayList<>(size);
+        boolean hasNext = false;
+
+        for (Recipient r : range.values()) {
+            if (r.ownerId().equals(userId) || !seen.add(r.id())) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            if (content.size() == size) {
+                hasNext = true;
+                break;
+            }
+            content.add(new RecipientResponse(r.id(), r.name(), r.holderName()));
+        }
+
+        return PaginatedResponse.<RecipientResponse>builder()
+                .content(content)
+                .page(page)
+                .size(size)
+                .totalElements(-1)
+                .totalPages(-1)
+                .hasNext(hasNext)
+                .hasPrevious(page > 0)
+                .build();
+    }
+
+    // Runs immediately when published outside a transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        invalidationBus.publish(CACHE_NAME, event.getUserId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.accounts.recipients.rebuild-interval-ms:600000}",
+            fixedDelayString = "${app.accounts.recipients.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        synchronized (this) {
+            refreshedDuringRebuild = new HashSet<>();
+        }
+
+        long started = System.currentTimeMillis();
+        ConcurrentSkipListMap<String, Recipient> fresh = new ConcurrentSkipListMap<>();
+        Map<Long, List<String>> freshKeys = new HashMap<>();
+        List<RecipientRow> rows = accountRepo.findRecipientRows();
+        for (RecipientRow row : rows) {
+            put(fresh, freshKeys, row);
+        }
+
+        synchronized (this) {
+            index = fresh;
+            keysByOwner = freshKeys;
+            for (Long userId : refreshedDuringRebuild) {
+                applyUser(userId, accountRepo.findRecipientRowsByUserId(userId));
+            }
+            refreshedDuringRebuild = null;
+        }
+
+        logger.info("Recipient directory rebuilt with {} accounts in {} ms",
+                rows.size(), System.currentTimeMillis() - started);
+    }
+
+    synchronized void refreshUser(Long userId) {
+        applyUser(userId, accountRepo.findRecipientRowsByUserId(userId));
+        if (refreshedDuringRebuild != null) {
+            refreshedDuringRebuild.add(userId);
+        }
+    }
+
+    private void applyUser(Long userId, List<RecipientRow> rows) {
+        List<String> old = keysByOwner.remove(userId);
+        if (old != null) {
+            old.forEach(index::remove);
+        }
+        rows.forEach(row -> put(index, keysByOwner, row));
+    }
+
+    private static void put(Map<String, Recipient> target, Map<Long, List<String>> keys, RecipientRow row) {
+        Recipient recipient = new Recipient(row.getId(), row.getOwnerId(), row.getName(), row.getHolderName());
+        Set<String> tokens = new HashSet<>();
+        addTokens(row.getName(), tokens);
+        addTokens(row.getHolderName(), tokens);
+
+        List<String> owned = keys.computeIfAbsent(row.getOwnerId(), k -> new ArrayList<>());
+        for (String token : tokens) {
+            String key = token + '\0' + row.getId();
+            target.put(key, recipient);
+            owned.add(key);
+        }
+    }
+
+    // "Joint Savings" -> "joint savings", "savings"
+    private static void addTokens(String value, Set<String> tokens) {
+        String text = normalize(value);
+        for (int i = 0; i < text.length(); i++) {
+            if (i == 0 || (text.charAt(i - 1) == ' ' && text.charAt(i) != ' ')) {
+                tokens.add(text.substring(i));
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
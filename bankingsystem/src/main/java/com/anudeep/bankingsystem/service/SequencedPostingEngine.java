@@ -0,0 +1,327 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.event.PostingEventPublisher;
+import com.anudeep.bankingsystem.exception.ApiException;
+import com.anudeep.bankingsystem.exception.PostingPendingException;
+import com.anudeep.bankingsystem.exception.RetryLaterException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Alternative posting mode (app.posting.engine=sequenced). Postings are
+ * routed by account to a fixed number of single-writer threads; each writer
+ * drains its queue and applies everything it drained in one database
+ * transaction, so a burst of N postings costs one commit instead of N.
+ * Every posting runs under its own savepoint, so a rejected posting (e.g.
+ * insufficient balance) does not affect the rest of the group; its events
+ * are only published once its savepoint is released. Callers are answered
+ * only after the group has committed.
+ *
+ * A group holds the stripe locks of every account it touches until it has
+ * committed, the same locks the default engine takes, so groups on different
+ * writers and single postings never hold rows the other is waiting for. The
+ * first posting of a group may wait for its stripes; the others are only
+ * added if their stripes are free right away, and otherwise lead the
+ * writer's next group. Waiting while holding nothing cannot close a cycle.
+ *
+ * Scope: the database commit remains the acknowledgement point and the only
+ * source of truth. There is no write-ahead journal, no in-memory balance
+ * state and no snapshot/replay on startup; balances are always read and
+ * guarded in MySQL, as in the default engine.
+ */
+@Component
+public class SequencedPostingEngine {
+    private static final Logger logger = LoggerFactory.getLogger(SequencedPostingEngine.class);
+
+    private record Command<T>(Collection<Long> accountIds, Supplier<T> work, CompletableFuture<T> result) {
+    }
+
+    private final PostingExecutor postingExecutor;
+    private final AccountLockManager lockManager;
+    private final PostingEventPublisher postingEvents;
+    private final TransactionTemplate groupTx;
+    private final TransactionTemplate commandTx;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int writerCount;
+    private final int groupSize;
+    private final int queueCapacity;
+    private final long submitTimeoutMs;
+
+    private final Timer groupTimer;
+    private final DistributionSummary groupSizes;
+    private final Counter deferrals;
+    private final Counter replays;
+
+    private BlockingQueue<Command<?>>[] queues;
+    private ExecutorService writers;
+    private volatile boolean running;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SequencedPostingEngine(PostingExecutor postingExecutor,
+                                  AccountLockManager lockManager,
+                                  PostingEventPublisher postingEvents,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.posting.engine:jpa}") String engine,
+                                  @Value("${app.posting.sequenced.writers:4}") int writerCount,
+                                  @Value("${app.posting.sequenced.group-size:256}") int groupSize,
+                                  @Value("${app.posting.sequenced.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${app.posting.sequenced.submit-timeout-ms:10000}") long submitTimeoutMs) {
+        this.postingExecutor = postingExecutor;
+        this.lockManager = lockManager;
+        this.postingEvents = postingEvents;
+        this.groupTx = new TransactionTemplate(transactionManager);
+        this.commandTx = new TransactionTemplate(transactionManager);
+        this.commandTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.meterRegistry = meterRegistry;
+        this.enabled = "sequenced".equalsIgnoreCase(engine.trim());
+        this.writerCount = Math.max(1, writerCount);
+        this.groupSize = Math.max(1, groupSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.submitTimeoutMs = submitTimeoutMs;
+
+        this.groupTimer = meterRegistry.timer("posting.group.commit");
+        this.groupSizes = DistributionSummary.builder("posting.group.size")
+                .description("Postings committed per group")
+                .register(meterRegistry);
+        this.deferrals = meterRegistry.counter("posting.group.deferred");
+        this.replays = meterRegistry.counter("posting.group.replayed");
+    }
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        queues = new BlockingQueue[writerCount];
+        AtomicInteger threadNo = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerCount, r -> {
+            Thread t = new Thread(r, "posting-writer-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        running = true;
+        for (int i = 0; i < writerCount; i++) {
+            BlockingQueue<Command<?>> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues[i] = queue;
+            writers.submit(() -> writerLoop(queue));
+        }
+
+        Gauge.builder("posting.queue.depth", this, SequencedPostingEngine::queueDepth)
+                .description("Postings waiting for a writer")
+                .register(meterRegistry);
+
+        logger.info("Sequenced posting engine started with {} writers, group size {}", writerCount, groupSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+
+        running = false;
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(5, TimeUnit.SECONDS)) {
+                writers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (BlockingQueue<Command<?>> queue : queues) {
+            Command<?> c;
+            while ((c = queue.poll()) != null) {
+                c.result().completeExceptionally(new RetryLaterException("Server is shutting down, please retry"));
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the posting on the writer owning routingAccountId and waits for
+     * the group it lands in to commit. accountIds are the stripe locks used
+     * if the posting has to be replayed on its own.
+     */
+    public <T> T submit(Long routingAccountId, Collection<Long> accountIds, Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        BlockingQueue<Command<?>> queue = queues[writerFor(routingAccountId)];
+
+        if (!queue.offer(new Command<>(accountIds, work, result))) {
+            logger.warn("Posting queue full for account {}", routingAccountId);
+            throw new RetryLaterException("Server is busy, please retry");
+        }
+
+        try {
+            return result.get(submitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new ApiException("Posting failed", e.getCause());
+        } catch (TimeoutException e) {
+            // The posting is still queued and may commit; whoever holds its Idempotency-Key must keep it
+            logger.warn("Posting on account {} not confirmed within {} ms", routingAccountId, submitTimeoutMs);
+            throw new PostingPendingException(
+                    "Posting not confirmed in time, retry with the same Idempotency-Key or check your transaction history", result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PostingPendingException("Interrupted while waiting for posting", result);
+        }
+    }
+
+    private void writerLoop(BlockingQueue<Command<?>> queue) {
+        // Postings whose stripes were busy when their group formed; they lead the next one
+        Deque<Command<?>> deferred = new ArrayDeque<>();
+        List<Command<?>> candidates = new ArrayList<>(groupSize);
+        while (running || !queue.isEmpty() || !deferred.isEmpty()) {
+            try {
+                if (deferred.isEmpty()) {
+                    Command<?> first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    candidates.add(first);
+                } else {
+                    while (!deferred.isEmpty() && candidates.size() < groupSize) {
+                        candidates.add(deferred.poll());
+                    }
+                }
+                queue.drainTo(candidates, groupSize - candidates.size());
+                commitGroup(candidates, deferred);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Posting writer failed on a group of {}", candidates.size(), e);
+                deferred.removeAll(candidates);
+                candidates.forEach(c -> c.result().completeExceptionally(e));
+            } finally {
+                candidates.clear();
+            }
+        }
+    }
+
+    private void commitGroup(List<Command<?>> candidates, Deque<Command<?>> deferred) {
+        List<Command<?>> group = new ArrayList<>(candidates.size());
+        List<ReentrantLock> held = new ArrayList<>();
+        List<Runnable> completions = new ArrayList<>(candidates.size());
+        try {
+            for (Command<?> command : candidates) {
+                List<ReentrantLock> locks;
+                if (group.isEmpty()) {
+                    // Nothing is held yet, so this may wait like a single posting does
+                    try {
+                        locks = lockManager.acquire(command.accountIds());
+                    } catch (RuntimeException e) {
+                        command.result().completeExceptionally(e);
+                        continue;
+                    }
+                } else {
+                    locks = lockManager.tryAcquire(command.accountIds());
+                    if (locks == null) {
+                        deferrals.increment();
+                        deferred.add(command);
+                        continue;
+                    }
+                }
+                held.addAll(locks);
+                group.add(command);
+            }
+            if (group.isEmpty()) {
+                return;
+            }
+
+            groupTimer.record(() -> groupTx.executeWithoutResult(status -> {
+                for (Command<?> command : group) {
+                    completions.add(applyInGroup(command));
+                }
+            }));
+        } catch (RuntimeException e) {
+            // Something other than a business rule failed (constraint, lock on an unstriped row, ...);
+            // fall back to one transaction per posting
+            logger.warn("Posting group of {} rolled back, replaying individually: {}", group.size(), e.getMessage());
+            lockManager.release(held);
+            held.clear();
+            replays.increment(group.size());
+            group.forEach(this::applyAlone);
+            return;
+        } finally {
+            lockManager.release(held);
+        }
+
+        groupSizes.record(group.size());
+        completions.forEach(Runnable::run);
+    }
+
+    private <T> Runnable applyInGroup(Command<T> command) {
+        List<Object> events = new ArrayList<>();
+        T value;
+        try {
+            value = postingEvents.collecting(events, () -> commandTx.execute(status -> {
+                T v = command.work().get();
+                // Every write of the posting reaches the database inside its own savepoint
+                entityManager.flush();
+                return v;
+            }));
+        } catch (ApiException e) {
+            // Rolled back to the savepoint; earlier postings are flushed, so only this one's entities and events are dropped
+            entityManager.clear();
+            return () -> command.result().completeExceptionally(e);
+        }
+
+        events.forEach(postingEvents::publish);
+        return () -> command.result().complete(value);
+    }
+
+    private <T> void applyAlone(Command<T> command) {
+        try {
+            command.result().complete(postingExecutor.execute(command.accountIds(), command.work()));
+        } catch (RuntimeException e) {
+            command.result().completeExceptionally(e);
+        }
+    }
+
+    private int writerFor(Long accountId) {
+        int h = Long.hashCode(accountId);
+        return Math.floorMod(h ^ (h >>> 16), queues.length);
+    }
+
+    private double queueDepth() {
+        int depth = 0;
+        for (BlockingQueue<Command<?>> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,118 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.transaction.TransactionDetailResponse;
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
+import com.anudeep.bankingsystem.event.CacheInvalidationBus;
+import com.anudeep.bankingsystem.event.TransactionsRecategorizedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Transaction details by id, stored as serialized JSON so entries are compact
+ * and every caller gets its own copy. A posted row only changes when it is
+ * (re-)categorized; account and holder names can change too, so an account
+ * change drops the entries of both users a detail shows. Balances are not
+ * trusted from the cache, see TransactionService.getTransactionDetails.
+ */
+@Component
+public class TransactionDetailCache {
+    static final String CACHE_NAME = "transactions.details";
+    // relatedOwnerId is the owner of the related account, if any
+    public record Detail(Long ownerId, Long relatedOwnerId, TransactionDetailResponse response) {
+    }
+
+    private record Entry(Long ownerId, Long relatedOwnerId, byte[] json) {
+    }
+
+    // Published when a user's accounts or name change
+    private record UserChanged(Long userId) {
+    }
+
+    private final Cache<Long, Entry> byId;
+    private final CacheInvalidationBus invalidationBus;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    public TransactionDetailCache(CacheInvalidationBus invalidationBus,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.transactions.detail-cache.max-bytes:67108864}") long maxBytes,
+                                  @Value("${app.transactions.detail-cache.ttl-minutes:60}") long ttlMinutes) {
+        this.invalidationBus = invalidationBus;
+        this.writer = objectMapper.writerFor(TransactionDetailResponse.class);
+        this.reader = objectMapper.readerFor(TransactionDetailResponse.class);
+        this.byId = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, Entry e) -> e.json().length + 64)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, CACHE_NAME);
+        invalidationBus.subscribe(CACHE_NAME, key -> {
+            if (key instanceof UserChanged changed) {
+                // Rare enough that a scan of the entries is cheaper than a per-user index
+                byId.asMap().values().removeIf(e -> changed.userId().equals(e.ownerId())
+                        || changed.userId().equals(e.relatedOwnerId()));
+            } else {
+                byId.invalidate((Long) key);
+            }
+        });
+    }
+
+    /**
+     * The detail of a transaction, loaded with the given function on a miss.
+     * Loader exceptions propagate and nothing is cached.
+     */
+    public Detail get(Long transactionId, Function<Long, Detail> loader) {
+        Entry entry = byId.get(transactionId, id -> {
+            Detail loaded = loader.apply(id);
+            return new Entry(loaded.ownerId(), loaded.relatedOwnerId(), serialize(loaded.response()));
+        });
+        return new Detail(entry.ownerId(), entry.relatedOwnerId(), deserialize(entry.json()));
+    }
+
+    // Ordered before UserDataVersions, so a new ETag is never paired with a stale entry
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecategorized(TransactionsRecategorizedEvent event) {
+        event.getTransactionIds().forEach(id -> invalidationBus.publish(CACHE_NAME, id));
+    }
+
+    // Names of the user's accounts or of the user may have changed
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        invalidationBus.publish(CACHE_NAME, new UserChanged(event.getUserId()));
+    }
+
+    private byte[] serialize(TransactionDetailResponse response) {
+        try {
+            return writer.writeValueAsBytes(response);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize transaction detail " + response.getId(), e);
+        }
+    }
+
+    private TransactionDetailResponse deserialize(byte[] json) {
+        try {
+            return reader.readValue(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read cached transaction detail", e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.transaction.TransactionResponse;
+import com.anudeep.bankingsystem.entity.Transaction;
+import com.anudeep.bankingsystem.exception.ApiException;
+import com.anudeep.bankingsystem.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's full history straight from a streaming result set to the
+ * response. Rows are read one at a time and the persistence context is
+ * cleared periodically, so heap use does not grow with the history size.
+ */
+@Service
+public class TransactionExportService {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private final TransactionRepository txnRepo;
+    private final ObjectWriter jsonWriter;
+    private final TransactionTemplate readOnlyTx;
+    private final int clearEvery;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TransactionExportService(TransactionRepository txnRepo,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.export.clear-every:500}") int clearEvery) {
+        this.txnRepo = txnRepo;
+        this.jsonWriter = objectMapper.writerFor(TransactionResponse.class);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.clearEvery = Math.max(1, clearEvery);
+    }
+
+    public static String normalizeFormat(String format) {
+        String f = format == null ? NDJSON : format.trim().toLowerCase(Locale.ROOT);
+        if (!NDJSON.equals(f) && !CSV.equals(f)) {
+            throw new ApiException("Unsupported export format: " + format);
+        }
+        return f;
+    }
+
+    public void export(Long userId, String format, OutputStream out) throws IOException {
+        logger.info("Exporting transaction history for user: {} as {}", userId, format);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        long rows;
+        try {
+            rows = readOnlyTx.execute(status -> {
+                try (Stream<Transaction> stream = txnRepo.streamByUserId(userId)) {
+                    return writeRows(stream, format, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            logger.warn("Export for user {} aborted: {}", userId, e.getCause().getMessage());
+            throw e.getCause();
+        }
+        writer.flush();
+
+        logger.info("Exported {} transactions for user: {}", rows, userId);
+    }
+
+    private long writeRows(Stream<Transaction> stream, String format, Writer writer) throws IOException {
+        boolean csv = CSV.equals(format);
+        if (csv) {
+            writer.write("id,accountId,amount,type,description,createdAt\n");
+        }
+
+        long count = 0;
+        Iterator<Transaction> it = stream.iterator();
+        while (it.hasNext()) {
+            Transaction t = it.next();
+            if (csv) {
+                writeCsvRow(t, writer);
+            } else {
+                writer.write(jsonWriter.writeValueAsString(toResponse(t)));
+                writer.write('\n');
+            }
+
+            if (++count % clearEvery == 0) {
+                // Drop already-written entities and push the bytes to the client
+                entityManager.clear();
+                writer.flush();
+            }
+        }
+        return count;
+    }
+
+    private static void writeCsvRow(Transaction t, Writer writer) throws IOException {
+        writer.write(String.valueOf(t.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(t.getAccount().getId()));
+        writer.write(',');
+        writer.write(t.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(t.getType());
+        writer.write(',');
+        writer.write(csvField(t.getDescription()));
+        writer.write(',');
+        writer.write(String.valueOf(t.getCreatedAt()));
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static TransactionResponse toResponse(Transaction t) {
+        return new TransactionResponse(
+                t.getId(),
+                t.getAccount().getId(),
+                t.getAmount(),
+                t.getType(),
+                t.getDescription(),
+                t.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,334 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.transaction.TransactionSearchEntry;
+import com.anudeep.bankingsystem.event.CacheInvalidationBus;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.repository.TransactionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Per-user trigram index over transaction descriptions, kept in memory for the
+ * most recently searched users. Built lazily from the database on the first
+ * search, extended after each posting commits, and evicted least recently
+ * used first, or earlier when all indexes together exceed the document
+ * budget. Candidates from the rarest query trigram are verified with a
+ * substring check. Text and query are compared without case and accents,
+ * like the accent-insensitive collation the LIKE query relies on; the
+ * collation's expansions (e.g. "ß" = "ss") are not reproduced. "%" and "_"
+ * are plain characters here, so the LIKE fallback escapes them.
+ *
+ * Posted rows are forwarded on the invalidation bus, so other instances
+ * extend the indexes they hold for the same users.
+ */
+@Component
+public class TransactionSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionSearchIndex.class);
+
+    static final String CACHE_NAME = "search.index";
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    public record Hits(List<Long> ids, long total) {
+    }
+
+    // Published for postings indexed locally; only other instances act on it
+    private record Posted(String origin, List<PostedTransaction> rows) {
+    }
+
+    private final TransactionRepository txnRepo;
+    private final CacheInvalidationBus invalidationBus;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final boolean enabled;
+    private final int maxDocsPerUser;
+    private final long maxDocs;
+
+    private final Map<Long, UserIndex> users;
+    // Documents held by all indexes; recounted exactly whenever an index is built
+    private final AtomicLong heldDocs = new AtomicLong();
+    // Users whose index is being loaded; postings that commit meanwhile are buffered here
+    private final Map<Long, List<PostedTransaction>> building = new ConcurrentHashMap<>();
+    // One build per user at a time; striped so the lock set stays bounded
+    private final Object[] buildLocks = new Object[64];
+
+    // Marks users with too many rows to index; they are served by the SQL query
+    private static final UserIndex TOO_LARGE = new UserIndex();
+
+    public TransactionSearchIndex(TransactionRepository txnRepo,
+                                  CacheInvalidationBus invalidationBus,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.search.index.enabled:true}") boolean enabled,
+                                  @Value("${app.search.index.max-users:2000}") int maxUsers,
+                                  @Value("${app.search.index.max-docs-per-user:200000}") int maxDocsPerUser,
+                                  @Value("${app.search.index.max-docs:5000000}") long maxDocs) {
+        this.txnRepo = txnRepo;
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled;
+        this.maxDocsPerUser = (int) Math.min(maxDocsPerUser, maxDocs);
+        this.maxDocs = maxDocs;
+        Arrays.setAll(buildLocks, i -> new Object());
+
+        int capacity = Math.max(1, maxUsers);
+        this.users = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserIndex> eldest) {
+                if (size() > capacity) {
+                    heldDocs.addAndGet(-eldest.getValue().size());
+                    return true;
+                }
+                return false;
+            }
+        });
+
+        Gauge.builder("search.index.users", users, Map::size)
+                .description("Users with an in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("search.index.docs", heldDocs, AtomicLong::get)
+                .description("Transactions held by the in-memory search indexes")
+                .register(meterRegistry);
+
+        invalidationBus.subscribe(CACHE_NAME, key -> {
+            if (key instanceof Posted posted && !instanceId.equals(posted.origin())) {
+                index(posted.rows());
+            }
+        });
+    }
+
+    /**
+     * Ranked ids for one page of matches, or empty if the user is not indexable
+     * and the caller should fall back to the database.
+     */
+    public Optional<Hits> search(Long userId, String query, int page, int size) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        UserIndex index = users.get(userId);
+        if (index == null) {
+            index = build(userId);
+        }
+        if (index == TOO_LARGE) {
+            return Optional.empty();
+        }
+        return Optional.of(index.search(normalize(query), page, size));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostingCommitted(PostingCommittedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        index(event.getTransactions());
+        invalidationBus.publish(CACHE_NAME, new Posted(instanceId, event.getTransactions()));
+    }
+
+    private void index(List<PostedTransaction> rows) {
+        for (PostedTransaction t : rows) {
+            List<PostedTransaction> pending = building.get(t.getUserId());
+            if (pending != null) {
+                synchronized (pending) {
+                    if (building.get(t.getUserId()) == pending) {
+                        pending.add(t);
+                        continue;
+                    }
+                }
+            }
+
+            // Not-yet-indexed users pick the row up when their index is built
+            UserIndex index = users.get(t.getUserId());
+            if (index != null && index != TOO_LARGE && index.add(t.getId(), t.getDescription())) {
+                heldDocs.incrementAndGet();
+            }
+        }
+
+        if (heldDocs.get() > maxDocs) {
+            evictOverBudget(null);
+        }
+    }
+
+    private UserIndex build(Long userId) {
+        // A concurrent build for the same user would replace this one's pending list
+        synchronized (buildLocks[Math.floorMod(userId.hashCode(), buildLocks.length)]) {
+            UserIndex built = users.get(userId);
+            if (built != null) {
+                return built;
+            }
+
+            List<PostedTransaction> pending = new ArrayList<>();
+            building.put(userId, pending);
+            try {
+                if (txnRepo.countByUserId(userId) > maxDocsPerUser) {
+                    logger.info("User {} has too many transactions for the in-memory search index", userId);
+                    users.put(userId, TOO_LARGE);
+                    return TOO_LARGE;
+                }
+
+                long started = System.currentTimeMillis();
+                UserIndex index = new UserIndex();
+                for (TransactionSearchEntry entry : txnRepo.findSearchEntriesByUserId(userId)) {
+                    index.add(entry.getId(), entry.getDescription());
+                }
+
+                synchronized (pending) {
+                    pending.forEach(t -> index.add(t.getId(), t.getDescription()));
+                    users.put(userId, index);
+                    building.remove(userId, pending);
+                }
+                evictOverBudget(userId);
+
+                logger.debug("Built search index for user {} with {} transactions in {} ms",
+                        userId, index.size(), System.currentTimeMillis() - started);
+                return index;
+            } finally {
+                building.remove(userId, pending);
+            }
+        }
+    }
+
+    // Recounts the held documents and drops least recently used indexes, other than keep's, until under budget
+    private void evictOverBudget(Long keep) {
+        synchronized (users) {
+            long held = 0;
+            for (UserIndex index : users.values()) {
+                held += index.size();
+            }
+
+            Iterator<Map.Entry<Long, UserIndex>> eldestFirst = users.entrySet().iterator();
+            while (held > maxDocs && eldestFirst.hasNext()) {
+                Map.Entry<Long, UserIndex> entry = eldestFirst.next();
+                if (!entry.getKey().equals(keep)) {
+                    held -= entry.getValue().size();
+                    eldestFirst.remove();
+                }
+            }
+            heldDocs.set(held);
+        }
+    }
+
+    // Lower case without accents, so "Café" and "cafe" match each other
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static final class UserIndex {
+        private long[] ids = new long[64];
+        private String[] texts = new String[64];
+        private int size;
+        private final Set<Long> known = new HashSet<>();
+        // trigram -> ascending doc positions
+        private final Map<Long, IntList> postings = new HashMap<>();
+
+        synchronized int size() {
+            return size;
+        }
+
+        // False if the row has no description or is already indexed
+        synchronized boolean add(long id, String description) {
+            if (description == null || !known.add(id)) {
+                return false;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                texts = Arrays.copyOf(texts, size * 2);
+            }
+
+            int doc = size++;
+            String text = normalize(description);
+            ids[doc] = id;
+            texts[doc] = text;
+
+            Set<Long> seen = new HashSet<>();
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                long gram = trigram(text, i);
+                if (seen.add(gram)) {
+                    postings.computeIfAbsent(gram, k -> new IntList()).add(doc);
+                }
+            }
+            return true;
+        }
+
+        synchronized Hits search(String query, int page, int pageSize) {
+            IntList candidates = null;
+            if (query.length() >= 3) {
+                for (int i = 0; i + 3 <= query.length(); i++) {
+                    IntList list = postings.get(trigram(query, i));
+                    if (list == null) {
+                        return new Hits(List.of(), 0);
+                    }
+                    if (candidates == null || list.size < candidates.size) {
+                        candidates = list;
+                    }
+                }
+            }
+
+            // {score, transaction id} per verified match
+            List<long[]> matches = new ArrayList<>();
+            int count = candidates != null ? candidates.size : size;
+            for (int i = 0; i < count; i++) {
+                int doc = candidates != null ? candidates.values[i] : i;
+                int score = score(texts[doc], query);
+                if (score > 0) {
+                    matches.add(new long[]{score, ids[doc]});
+                }
+            }
+
+            // Best match first, newest first among equals (ids are time-ordered)
+            matches.sort((a, b) -> a[0] != b[0] ? Long.compare(b[0], a[0]) : Long.compare(b[1], a[1]));
+
+            int from = (int) Math.min((long) page * pageSize, matches.size());
+            int to = (int) Math.min((long) from + pageSize, matches.size());
+            List<Long> pageIds = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                pageIds.add(matches.get(i)[1]);
+            }
+            return new Hits(pageIds, matches.size());
+        }
+
+        // 4: whole description, 3: whole word, 2: word prefix, 1: inside a word, 0: no match
+        static int score(String text, String query) {
+            if (text.equals(query)) {
+                return 4;
+            }
+
+            int best = 0;
+            for (int at = text.indexOf(query); at >= 0 && best < 3; at = text.indexOf(query, at + 1)) {
+                boolean wordStart = at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1));
+                int end = at + query.length();
+                boolean wordEnd = end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+                best = Math.max(best, wordStart ? (wordEnd ? 3 : 2) : 1);
+            }
+            return best;
+        }
+
+        private static long trigram(String s, int i) {
+            return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -4,65 +4,109 @@ import com.anudeep.bankingsystem.dto.PaginatedResponse;
 import com.anudeep.bankingsystem.dto.account.AccountResponse;
 import com.anudeep.bankingsystem.dto.transaction.*;
 import com.anudeep.bankingsystem.entity.*;
+import com.anudeep.bankingsystem.event.CategorizationPayload;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.event.PostingEventPublisher;
+import com.anudeep.bankingsystem.event.TransactionPostedPayload;
 import com.anudeep.bankingsystem.exception.ApiException;
+import com.anudeep.bankingsystem.listener.CategorizationOutboxHandler;
+import com.anudeep.bankingsystem.listener.TransactionAuditOutboxHandler;
+import com.anudeep.bankingsystem.listener.TransactionEmailOutboxHandler;
 import com.anudeep.bankingsystem.repository.*;
+import com.anudeep.bankingsystem.util.Money;
+import com.anudeep.bankingsystem.util.TransactionCursor;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    // /filter returns at most this many rows, newest first; /filter/cursor pages through the rest
+    static final int MAX_FILTER_RESULTS = 500;
+    private static final int ID_LOOKUP_CHUNK = 1000;
+    private static final Comparator<TransactionResponse> RESPONSES_NEWEST_FIRST = Comparator
+            .comparing(TransactionResponse::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(TransactionResponse::getId, Comparator.reverseOrder());
+
     private final AccountRepository accountRepo;
     private final TransactionRepository txnRepo;
     private final UserRepository userRepository;
-    private final AiService aiService;
+    private final OutboxService outboxService;
+    private final PostingExecutor postingExecutor;
+    private final AccountBalanceShards balanceShards;
+    private final SequencedPostingEngine sequencedEngine;
+    private final IdempotencyService idempotencyService;
+    private final TransactionSearchIndex searchIndex;
+    private final TransactionDetailCache detailCache;
+    private final AccountService accountService;
+    private final PostingEventPublisher eventPublisher;
 
-    @Transactional
     public TransactionResponse deposit(Long userId, TransactionRequest req) {
-        logger.info("Processing deposit for user: {} amount: {}", userId, req.getAmount());
-        
-        // Validate user exists
-        AppUser user = userRepository.findById(userId)
-                .orElseThrow(() -> new ApiException("User not found"));
+        // Credits to a sharded account go to a slot row and need no stripe lock
+        List<Long> locked = isShardedCredit(userId, req.getFromAccountId())
+                ? List.of()
+                : List.of(req.getFromAccountId());
+        return post(req.getFromAccountId(), locked, () -> doDeposit(userId, req));
+    }
 
-        // Validate account exists
-        Account acc = accountRepo.findById(req.getFromAccountId())
-                .orElseThrow(() -> new ApiException("Account not found"));
+    public TransactionResponse withdraw(Long userId, TransactionRequest req) {
+        return post(req.getFromAccountId(), List.of(req.getFromAccountId()), () -> doWithdraw(userId, req));
+    }
 
-        // Verify user owns this account
-        if (acc.getUser() == null || !acc.getUser().getId().equals(userId)) {
-            logger.warn("Unauthorized deposit attempt for account {} by user: {}", req.getFromAccountId(), userId);
-            throw new ApiException("Not your account");
+    public TransactionResponse transfer(Long userId, TransactionRequest req) {
+        // FIX #1: Add null check for toAccountId
+        if (req.getToAccountId() == null) {
+            logger.warn("To account ID is null for user: {}", userId);
+            throw new ApiException("To account ID is required for transfer");
         }
 
-        BigDecimal amount = req.getAmount();
+        List<Long> locked = balanceShards.isSharded(req.getToAccountId())
+                ? List.of(req.getFromAccountId())
+                : List.of(req.getFromAccountId(), req.getToAccountId());
+        return post(req.getFromAccountId(), locked, () -> doTransfer(userId, req));
+    }
 
-        // Validate amount
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            logger.warn("Invalid deposit amount: {}", amount);
-            throw new ApiException("Amount must be positive");
+    // Postings are routed by the debited account, so one writer owns all debits of an account in sequenced mode
+    private <T> T post(Long routingAccountId, Collection<Long> lockedAccountIds, Supplier<T> work) {
+        // An Idempotency-Key on the request is completed in the posting's own transaction
+        Supplier<T> tracked = idempotencyService.bindToCurrentRequest(work);
+        if (sequencedEngine.isEnabled() && routingAccountId != null) {
+            return sequencedEngine.submit(routingAccountId, lockedAccountIds, tracked);
         }
+        return postingExecutor.execute(lockedAccountIds, tracked);
+    }
 
-        // Update account balance
-        acc.setBalance(acc.getBalance().add(amount));
-        accountRepo.save(acc);
+    private TransactionResponse doDeposit(Long userId, TransactionRequest req) {
+        logger.info("Processing deposit for user: {} amount: {}", userId, req.getAmount());
+
+        BigDecimal amount = req.getAmount();
+
+        validateAmount(amount, "deposit");
+
+        // Credit the account (existence and ownership are part of the guarded update)
+        if (!isShardedCredit(userId, req.getFromAccountId()) || !balanceShards.credit(req.getFromAccountId(), amount)) {
+            applyOwnedDelta(userId, req.getFromAccountId(), amount, "deposit", "Account not found");
+        }
 
         // Create transaction
         Transaction t = Transaction.builder()
-                .account(acc)
-                .user(user)
+                .account(accountRepo.getReferenceById(req.getFromAccountId()))
+                .user(userRepository.getReferenceById(userId))
                 .amount(amount)
                 .type("DEPOSIT")
                 .description(req.getDescription())
@@ -70,55 +114,29 @@ public class TransactionService {
 
         txnRepo.save(t);
         
-        // Categorize asynchronously (won't throw exceptions)
-        aiService.categorizeTransaction(t);
+        // Categorization, confirmation email and audit run after commit via the outbox
+        recordSideEffects(userId, t, List.of(t));
         
         logger.info("Deposit completed successfully for user: {} transaction id: {}", userId, t.getId());
 
         return toResponse(t);
     }
 
-    @Transactional
-    public TransactionResponse withdraw(Long userId, TransactionRequest req) {
+    private TransactionResponse doWithdraw(Long userId, TransactionRequest req) {
         logger.info("Processing withdrawal for user: {} amount: {}", userId, req.getAmount());
-        
-        // Validate user exists
-        AppUser user = userRepository.findById(userId)
-                .orElseThrow(() -> new ApiException("User not found"));
-
-        // Validate account exists
-        Account acc = accountRepo.findById(req.getFromAccountId())
-                .orElseThrow(() -> new ApiException("Account not found"));
-
-        // Verify user owns this account
-        if (acc.getUser() == null || !acc.getUser().getId().equals(userId)) {
-            logger.warn("Unauthorized withdrawal attempt for account {} by user: {}", req.getFromAccountId(), userId);
-            throw new ApiException("Not your account");
-        }
 
         BigDecimal amount = req.getAmount();
 
-        // Validate amount
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            logger.warn("Invalid withdrawal amount: {}", amount);
-            throw new ApiException("Amount must be positive");
-        }
+        validateAmount(amount, "withdrawal");
 
-        // Check sufficient balance
-        if (acc.getBalance().compareTo(amount) < 0) {
-            logger.warn("Insufficient balance for withdrawal. Account: {} Balance: {} Amount: {}", 
-                    req.getFromAccountId(), acc.getBalance(), amount);
-            throw new ApiException("Insufficient balance");
-        }
-
-        // Update account balance
-        acc.setBalance(acc.getBalance().subtract(amount));
-        accountRepo.save(acc);
+        // Debit the account; the update only matches if the balance stays non-negative
+        balanceShards.consolidate(req.getFromAccountId());
+        applyOwnedDelta(userId, req.getFromAccountId(), amount.negate(), "withdrawal", "Account not found");
 
         // Create transaction
         Transaction t = Transaction.builder()
-                .account(acc)
-                .user(user)
+                .account(accountRepo.getReferenceById(req.getFromAccountId()))
+                .user(userRepository.getReferenceById(userId))
                 .amount(amount.negate())
                 .type("WITHDRAW")
                 .description(req.getDescription())
@@ -126,72 +144,44 @@ public class TransactionService {
 
         txnRepo.save(t);
         
-        // Categorize asynchronously (won't throw exceptions)
-        aiService.categorizeTransaction(t);
+        // Categorization, confirmation email and audit run after commit via the outbox
+        recordSideEffects(userId, t, List.of(t));
         
         logger.info("Withdrawal completed successfully for user: {} transaction id: {}", userId, t.getId());
 
         return toResponse(t);
     }
 
-    @Transactional
-    public TransactionResponse transfer(Long userId, TransactionRequest req) {
+    private TransactionResponse doTransfer(Long userId, TransactionRequest req) {
         logger.info("Processing transfer for user: {} amount: {} from: {} to: {}", 
                 userId, req.getAmount(), req.getFromAccountId(), req.getToAccountId());
         
         Long fromId = req.getFromAccountId();
         Long toId = req.getToAccountId();
 
-        // FIX #1: Add null check for toAccountId
-        if (toId == null) {
-            logger.warn("To account ID is null for user: {}", userId);
-            throw new ApiException("To account ID is required for transfer");
-        }
-
         // Check if trying to transfer to same account
         if (fromId.equals(toId)) {
             logger.warn("Cannot transfer to same account for user: {}", userId);
             throw new ApiException("Cannot transfer to same account");
         }
 
-        // Validate user exists
-        AppUser user = userRepository.findById(userId)
-                .orElseThrow(() -> new ApiException("User not found"));
-
-        // Validate from account exists
-        Account from = accountRepo.findById(fromId)
-                .orElseThrow(() -> new ApiException("From account not found"));
-
-        // Verify user owns from account
-        if (from.getUser() == null || !from.getUser().getId().equals(userId)) {
-            logger.warn("Unauthorized transfer attempt for account {} by user: {}", fromId, userId);
-            throw new ApiException("Not your account");
-        }
-
-        // Validate to account exists
-        Account to = accountRepo.findById(toId)
-                .orElseThrow(() -> new ApiException("To account not found"));
-
         BigDecimal amount = req.getAmount();
 
-        // Validate amount
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            logger.warn("Invalid transfer amount: {}", amount);
-            throw new ApiException("Amount must be positive");
-        }
+        validateAmount(amount, "transfer");
 
-        // Check sufficient balance
-        if (from.getBalance().compareTo(amount) < 0) {
-            logger.warn("Insufficient balance for transfer. From Account: {} Balance: {} Amount: {}", 
-                    fromId, from.getBalance(), amount);
-            throw new ApiException("Insufficient balance");
+        // Apply both legs in account-id order so opposite transfers take row locks in the same order.
+        // The debited account's slot and account rows are locked together, as part of its leg.
+        if (fromId < toId) {
+            debitForTransfer(userId, fromId, amount);
+            creditAccount(toId, amount);
+        } else {
+            creditAccount(toId, amount);
+            debitForTransfer(userId, fromId, amount);
         }
 
-        // Update both account balances
-        from.setBalance(from.getBalance().subtract(amount));
-        to.setBalance(to.getBalance().add(amount));
-        accountRepo.save(from);
-        accountRepo.save(to);
+        Account from = accountRepo.getReferenceById(fromId);
+        Account to = accountRepo.getReferenceById(toId);
+        AppUser user = userRepository.getReferenceById(userId);
 
         // Create outgoing transaction
         Transaction out = Transaction.builder()
@@ -216,9 +206,8 @@ public class TransactionService {
         txnRepo.save(out);
         txnRepo.save(in);
 
-        // Categorize both transactions asynchronously (won't throw exceptions)
-        aiService.categorizeTransaction(out);
-        aiService.categorizeTransaction(in);
+        // Categorization, confirmation email and audit run after commit via the outbox
+        recordSideEffects(userId, out, List.of(out, in));
         
         logger.info("Transfer completed successfully for user: {} transaction id: {}", userId, out.getId());
 
@@ -228,23 +217,20 @@ public class TransactionService {
     public List<TransactionResponse> listForUser(Long userId) {
         logger.info("Fetching transaction history for user: {}", userId);
         
-        return txnRepo.findByUserIdOrderByCreatedAtDesc(userId)
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        return txnRepo.findResponsesByUserId(userId);
     }
 
     // Pagination
     public PaginatedResponse<TransactionResponse> listForUserPaginated(Long userId, int page, int size) {
         logger.info("Fetching paginated transactions for user: {} page: {} size: {}", userId, page, size);
         
-        Page<Transaction> transactions = txnRepo.findByUserIdPaginated(
+        Page<TransactionResponse> transactions = txnRepo.findByUserIdPaginated(
                 userId,
                 PageRequest.of(page, size, Sort.by("createdAt").descending())
         );
 
         return PaginatedResponse.<TransactionResponse>builder()
-                .content(transactions.getContent().stream().map(this::toResponse).toList())
+                .content(transactions.getContent())
                 .page(page)
                 .size(size)
                 .totalElements(transactions.getTotalElements())
@@ -254,47 +240,77 @@ public class TransactionService {
                 .build();
     }
 
-    // Filtering
-    public List<TransactionResponse> filterTransactions(Long userId, TransactionFilterRequest filter) {
-        logger.info("Filtering transactions for user: {}", userId);
-        
-        List<Transaction> transactions = txnRepo.findByUserIdOrderByCreatedAtDesc(userId);
+    // Keyset pagination: constant cost per page regardless of depth, no COUNT unless asked for
+    public PaginatedResponse<TransactionResponse> listForUserByCursor(Long userId, String cursor, int size, boolean includeTotal) {
+        logger.info("Fetching transactions for user: {} by cursor, size: {}", userId, size);
 
-        if (filter.getStartDate() != null && filter.getEndDate() != null) {
-            transactions = transactions.stream()
-                    .filter(t -> t.getCreatedAt().isAfter(filter.getStartDate()) 
-                            && t.getCreatedAt().isBefore(filter.getEndDate()))
-                    .toList();
-        }
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
 
-        if (filter.getCategory() != null && !filter.getCategory().isEmpty()) {
-            transactions = transactions.stream()
-                    .filter(t -> t.getCategory() != null && t.getCategory().equals(filter.getCategory()))
-                    .toList();
+        List<TransactionResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = txnRepo.findFirstPageByUserId(userId, limit);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            rows = txnRepo.findPageByUserIdAfter(userId, after.createdAt(), after.id(), limit);
         }
 
-        if (filter.getType() != null && !filter.getType().isEmpty()) {
-            transactions = transactions.stream()
-                    .filter(t -> t.getType().equals(filter.getType()))
-                    .toList();
-        }
+        return toCursorPage(rows, pageSize, cursor, includeTotal ? txnRepo.countByUserId(userId) : -1);
+    }
 
-        if (filter.getMinAmount() != null || filter.getMaxAmount() != null) {
-            BigDecimal min = filter.getMinAmount() != null ? filter.getMinAmount() : BigDecimal.ZERO;
-            BigDecimal max = filter.getMaxAmount() != null ? filter.getMaxAmount() : new BigDecimal("999999999");
-            
-            transactions = transactions.stream()
-                    .filter(t -> {
-                        BigDecimal absAmount = t.getAmount().abs();
-                        return absAmount.compareTo(min) >= 0 && absAmount.compareTo(max) <= 0;
-                    })
-                    .toList();
+    private PaginatedResponse<TransactionResponse> toCursorPage(List<TransactionResponse> rows, int pageSize, String cursor, long total) {
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
         }
 
+        TransactionResponse last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+
+        return PaginatedResponse.<TransactionResponse>builder()
+                .content(rows)
+                .size(pageSize)
+                .totalElements(total)
+                .totalPages(total >= 0 ? (int) ((total + pageSize - 1) / pageSize) : -1)
+                .hasNext(hasNext)
+                .hasPrevious(cursor != null && !cursor.isBlank())
+                .nextCursor(hasNext ? new TransactionCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .build();
+    }
+
+    // Filtering: one query with every set field pushed into the WHERE clause, capped like a cursor page
+    public List<TransactionResponse> filterTransactions(Long userId, TransactionFilterRequest filter) {
+        logger.info("Filtering transactions for user: {}", userId);
+
+        List<Transaction> transactions = txnRepo.findBy(TransactionSpecifications.matching(userId, filter), q -> q
+                .sortBy(TransactionSpecifications.NEWEST_FIRST)
+                .limit(MAX_FILTER_RESULTS)
+                .all());
+
+        if (transactions.size() == MAX_FILTER_RESULTS) {
+            logger.info("Filter for user: {} returned the newest {} matches only", userId, MAX_FILTER_RESULTS);
+        }
         logger.info("Filtered {} transactions for user: {}", transactions.size(), userId);
         return transactions.stream().map(this::toResponse).toList();
     }
 
+    public PaginatedResponse<TransactionResponse> filterTransactionsByCursor(Long userId, TransactionFilterRequest filter,
+                                                                            String cursor, int size) {
+        logger.info("Filtering transactions for user: {} by cursor, size: {}", userId, size);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Specification<Transaction> spec = TransactionSpecifications.matching(userId, filter);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(TransactionSpecifications.after(TransactionCursor.decode(cursor)));
+        }
+
+        List<Transaction> rows = txnRepo.findBy(spec, q -> q
+                .sortBy(TransactionSpecifications.NEWEST_FIRST)
+                .limit(pageSize + 1)
+                .all());
+
+        return toCursorPage(rows.stream().map(this::toResponse).toList(), pageSize, cursor, -1);
+    }
+
     // Search
     public List<TransactionResponse> searchTransactions(Long userId, String query) {
         logger.info("Searching transactions for user: {} with query: {}", userId, query);
@@ -304,10 +320,66 @@ public class TransactionService {
             return List.of();
         }
         
-        return txnRepo.findByUserIdAndDescriptionContaining(userId, query)
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        // Newest first from either source; ranking is /search/ranked's job
+        Optional<TransactionSearchIndex.Hits> hits = searchIndex.search(userId, query, 0, Integer.MAX_VALUE);
+        if (hits.isPresent()) {
+            List<TransactionResponse> rows = new ArrayList<>(loadInOrder(hits.get().ids()));
+            rows.sort(RESPONSES_NEWEST_FIRST);
+            return rows;
+        }
+        return txnRepo.findByUserIdAndDescriptionContaining(userId, escapeLike(query));
+    }
+
+    // Ranked search served from the in-memory index, one page at a time
+    public PaginatedResponse<TransactionResponse> searchTransactionsRanked(Long userId, String query, int page, int size) {
+        logger.info("Ranked search for user: {} with query: {} page: {} size: {}", userId, query, page, size);
+
+        int pageNo = Math.max(0, page);
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+
+        List<TransactionResponse> content;
+        long total;
+        if (query == null || query.isBlank()) {
+            content = List.of();
+            total = 0;
+        } else {
+            Optional<TransactionSearchIndex.Hits> hits = searchIndex.search(userId, query, pageNo, pageSize);
+            if (hits.isPresent()) {
+                content = loadInOrder(hits.get().ids());
+                total = hits.get().total();
+            } else {
+                // User not indexable: plain substring match, newest first
+                List<TransactionResponse> all = txnRepo.findByUserIdAndDescriptionContaining(userId, escapeLike(query));
+                int from = (int) Math.min((long) pageNo * pageSize, all.size());
+                content = all.subList(from, Math.min(from + pageSize, all.size()));
+                total = all.size();
+            }
+        }
+
+        int totalPages = (int) ((total + pageSize - 1) / pageSize);
+        return PaginatedResponse.<TransactionResponse>builder()
+                .content(content)
+                .page(pageNo)
+                .size(pageSize)
+                .totalElements(total)
+                .totalPages(totalPages)
+                .hasNext(pageNo + 1 < totalPages)
+                .hasPrevious(pageNo > 0)
+                .build();
+    }
+
+    // '%' and '_' match themselves, as they do in the index
+    static String escapeLike(String query) {
+        return query.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private List<TransactionResponse> loadInOrder(List<Long> ids) {
+        Map<Long, TransactionResponse> byId = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += ID_LOOKUP_CHUNK) {
+            txnRepo.findResponsesByIds(ids.subList(i, Math.min(i + ID_LOOKUP_CHUNK, ids.size())))
+                    .forEach(r -> byId.put(r.getId(), r));
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 
     // Get by category
@@ -319,10 +391,7 @@ public class TransactionService {
             return List.of();
         }
         
-        return txnRepo.findByUserIdAndCategory(userId, category)
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        return txnRepo.findByUserIdAndCategory(userId, category);
     }
 
     // Get by type
@@ -334,10 +403,7 @@ public class TransactionService {
             return List.of();
         }
         
-        return txnRepo.findByUserIdAndType(userId, type)
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        return txnRepo.findByUserIdAndType(userId, type);
     }
 
     // Get by date range
@@ -349,87 +415,149 @@ public class TransactionService {
             return List.of();
         }
         
-        return txnRepo.findByUserIdAndDateRange(userId, startDate, endDate)
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        return txnRepo.findByUserIdAndDateRange(userId, startDate, endDate);
     }
 
-    // Get transaction details with related account info
+    // Get transaction details with related account info, cached apart from the balances
     public TransactionDetailResponse getTransactionDetails(Long userId, Long transactionId) {
         logger.info("Fetching transaction details for user: {} transaction: {}", userId, transactionId);
         
-        Transaction t = txnRepo.findById(transactionId)
-                .orElseThrow(() -> new ApiException("Transaction not found"));
+        TransactionDetailCache.Detail detail = detailCache.get(transactionId, this::loadDetail);
 
-        if (t.getUser() == null || !t.getUser().getId().equals(userId)) {
+        if (!detail.ownerId().equals(userId)) {
             logger.warn("Unauthorized access to transaction {} by user: {}", transactionId, userId);
             throw new ApiException("Unauthorized: Transaction does not belong to you");
         }
 
-        // FIX #2: Handle null account gracefully
-        if (t.getAccount() == null) {
-            logger.error("Transaction {} has null account", transactionId);
-            throw new ApiException("Transaction has invalid account reference");
+        TransactionDetailResponse response = detail.response();
+        applyCurrentBalance(response.getAccount(), detail.ownerId());
+        if (response.getRelatedAccount() != null && detail.relatedOwnerId() != null) {
+            applyCurrentBalance(response.getRelatedAccount(), detail.relatedOwnerId());
         }
 
-        // --- START OF NEW LOGIC ---
+        logger.info("Transaction details retrieved successfully for transaction: {}", transactionId);
+        return response;
+    }
+
+    // Everything but the balances, in one statement
+    private TransactionDetailCache.Detail loadDetail(Long transactionId) {
+        TransactionDetailRow row = txnRepo.findDetailRowById(transactionId)
+                .orElseThrow(() -> new ApiException("Transaction not found"));
+
+        // The recipient's name is only shown for transfers
         String recipientUserName = null;
-        Account relatedAccount = t.getRelatedAccount();
-
-        // Check if there is a related account (i.e., it's a transfer)
-        if (relatedAccount != null) {
-            // Check if the transaction type implies a transfer to a known entity
-            if ("TRANSFER_OUT".equals(t.getType()) || "TRANSFER_IN".equals(t.getType())) {
-                try {
-                    // Fetch the User Name using the AccountRepository method
-                    recipientUserName = accountRepo.findUserNameByAccountId(relatedAccount.getId());
-                } catch (Exception e) {
-                    logger.error("Could not find User Name for related account ID: {}", relatedAccount.getId(), e);
-                    // Fallback to null or a default message
-                    recipientUserName = "Unknown User"; 
-                }
-            }
+        if (row.getRelatedAccountId() != null
+                && ("TRANSFER_OUT".equals(row.getType()) || "TRANSFER_IN".equals(row.getType()))) {
+            recipientUserName = row.getRelatedUserName() != null ? row.getRelatedUserName() : "Unknown User";
         }
-        // --- END OF NEW LOGIC ---
-
 
         AccountResponse accountResp = new AccountResponse(
-                t.getAccount().getId(),
-                t.getAccount().getName(),
-                t.getAccount().getType(),
-                t.getAccount().getBalance()
+                row.getAccountId(),
+                row.getAccountName(),
+                row.getAccountType(),
+                row.getAccountBalance()
         );
 
         AccountResponse relatedAccountResp = null;
-        if (relatedAccount != null) {
+        if (row.getRelatedAccountId() != null) {
             relatedAccountResp = new AccountResponse(
-                    relatedAccount.getId(),
-                    relatedAccount.getName(),
-                    relatedAccount.getType(),
-                    relatedAccount.getBalance()
+                    row.getRelatedAccountId(),
+                    row.getRelatedAccountName(),
+                    row.getRelatedAccountType(),
+                    row.getRelatedAccountBalance()
             );
         }
 
-        String merchant = extractMerchantFromDescription(t.getDescription());
-
-        logger.info("Transaction details retrieved successfully for transaction: {}", transactionId);
+        String merchant = extractMerchantFromDescription(row.getDescription());
 
-        // **UPDATED DTO CONSTRUCTOR** to include the new field
-        return new TransactionDetailResponse(
-                t.getId(),
+        return new TransactionDetailCache.Detail(row.getUserId(), row.getRelatedUserId(), new TransactionDetailResponse(
+                row.getId(),
                 accountResp,
                 relatedAccountResp,
-                // NEW FIELD
-                recipientUserName, 
-                t.getAmount(),
-                t.getType(),
-                t.getCategory(),
-                t.getCategoryConfidence(),
-                t.getDescription(),
+                recipientUserName,
+                row.getAmount(),
+                row.getType(),
+                row.getCategory(),
+                row.getCategoryConfidence(),
+                row.getDescription(),
                 merchant,
-                t.getCreatedAt()
-        );
+                row.getCreatedAt()
+        ));
+    }
+
+    /**
+     * Cached details carry balances from when they were loaded. The current
+     * balance, slot credits included, comes from the owner's cached account
+     * list, which every posting on the account invalidates; a deleted account
+     * keeps the balance it was loaded with.
+     */
+    private void applyCurrentBalance(AccountResponse account, Long ownerId) {
+        accountService.listForUser(ownerId).stream()
+                .filter(a -> a.getId().equals(account.getId()))
+                .findFirst()
+                .ifPresent(current -> account.setBalance(current.getBalance()));
+    }
+
+    private void recordSideEffects(Long userId, Transaction primary, List<Transaction> rows) {
+        // In-process read models (search index, ...) update after commit
+        eventPublisher.publish(PostingCommittedEvent.of(rows));
+
+        outboxService.publish(CategorizationOutboxHandler.EVENT_TYPE, primary.getId(),
+                new CategorizationPayload(rows.stream().map(Transaction::getId).toList()));
+
+        TransactionPostedPayload posted = new TransactionPostedPayload(userId, primary.getId(),
+                primary.getAccount().getId(), primary.getType(), primary.getAmount(), null);
+        outboxService.publish(TransactionEmailOutboxHandler.EVENT_TYPE, primary.getId(), posted);
+        outboxService.publish(TransactionAuditOutboxHandler.EVENT_TYPE, primary.getId(), posted);
+    }
+
+    // Same rules as a batch item; anything that passes converts to long cents exactly
+    private static void validateAmount(BigDecimal amount, String operation) {
+        String error = amount == null ? "Amount must be positive"
+                : amount.stripTrailingZeros().scale() > 2 ? "Amount must have at most 2 decimal places"
+                : !Money.fits(amount) ? "Amount is too large"
+                : Money.cents(amount) <= 0 ? "Amount must be positive"
+                : null;
+        if (error != null) {
+            logger.warn("Invalid {} amount: {}", operation, amount);
+            throw new ApiException(error);
+        }
+    }
+
+    private void applyOwnedDelta(Long userId, Long accountId, BigDecimal delta, String operation, String notFoundMessage) {
+        if (accountRepo.applyOwnedDelta(accountId, userId, delta, LocalDateTime.now()) == 1) {
+            return;
+        }
+
+        // Nothing matched: work out why on this (cold) path only
+        Long ownerId = accountRepo.findOwnerIdById(accountId)
+                .orElseThrow(() -> new ApiException(notFoundMessage));
+
+        if (!ownerId.equals(userId)) {
+            logger.warn("Unauthorized {} attempt for account {} by user: {}", operation, accountId, userId);
+            throw new ApiException("Not your account");
+        }
+
+        logger.warn("Insufficient balance for {}. Account: {} Amount: {}", operation, accountId, delta.abs());
+        throw new ApiException("Insufficient balance");
+    }
+
+    private void debitForTransfer(Long userId, Long accountId, BigDecimal amount) {
+        balanceShards.consolidate(accountId);
+        applyOwnedDelta(userId, accountId, amount.negate(), "transfer", "From account not found");
+    }
+
+    private void creditAccount(Long accountId, BigDecimal amount) {
+        boolean credited = balanceShards.isSharded(accountId)
+                ? balanceShards.credit(accountId, amount)
+                : accountRepo.applyDelta(accountId, amount, LocalDateTime.now()) == 1;
+        if (!credited) {
+            throw new ApiException("To account not found");
+        }
+    }
+
+    private boolean isShardedCredit(Long userId, Long accountId) {
+        return userId != null && userId.equals(balanceShards.ownerOf(accountId));
     }
 
     private TransactionResponse toResponse(Transaction t) {
@@ -0,0 +1,109 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
+import com.anudeep.bankingsystem.event.CacheInvalidationBus;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.event.TransactionsRecategorizedEvent;
+import com.anudeep.bankingsystem.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user data version behind the ETags of the history, account and
+ * analytics endpoints. Bumped after every committed posting, account change
+ * and re-categorization touching the user. Versions live in memory, so each
+ * instance tags its ETags with a random epoch: a restarted or different
+ * instance never answers 304 to a tag it did not issue.
+ *
+ * Versions are kept for the most recently active users only. Every version
+ * is drawn from one counter for the whole epoch, so a user who is evicted
+ * and seen again gets a version no earlier tag carried: eviction costs a
+ * full response, never a wrong 304.
+ *
+ * Listeners run last after commit, once the read caches have dropped their
+ * entries, so a new version is never served with a stale cached body.
+ */
+@Component
+public class UserDataVersions {
+    static final String CACHE_NAME = "users.data-version";
+
+    private final AccountRepository accountRepo;
+    private final CacheInvalidationBus invalidationBus;
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private final AtomicLong lastVersion = new AtomicLong();
+    private final Cache<Long, Long> versions;
+    // Account owners never change, so they can be cached without invalidation
+    private final Cache<Long, Long> owners;
+
+    public UserDataVersions(AccountRepository accountRepo,
+                            CacheInvalidationBus invalidationBus,
+                            @Value("${app.accounts.cache.max-users:10000}") long maxOwners,
+                            @Value("${app.etags.max-users:100000}") long maxUsers) {
+        this.accountRepo = accountRepo;
+        this.invalidationBus = invalidationBus;
+        this.owners = Caffeine.newBuilder().maximumSize(maxOwners).build();
+        this.versions = Caffeine.newBuilder().maximumSize(maxUsers).build();
+
+        invalidationBus.subscribe(CACHE_NAME, key -> versions.put((Long) key, lastVersion.incrementAndGet()));
+    }
+
+    /**
+     * Strong ETag for everything derived from the user's data. Includes the
+     * date because some analytics are relative to today.
+     */
+    public String etag(Long userId) {
+        return "\"" + userId + "-" + epoch + "-" + versions.get(userId, id -> lastVersion.incrementAndGet()) + "-" + LocalDate.now() + "\"";
+    }
+
+    public void bump(Long userId) {
+        invalidationBus.publish(CACHE_NAME, userId);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostingCommitted(PostingCommittedEvent event) {
+        Set<Long> users = new HashSet<>();
+        for (PostedTransaction t : event.getTransactions()) {
+            users.add(t.getUserId());
+            addOwner(t.getAccountId(), users);
+            addOwner(t.getRelatedAccountId(), users);
+        }
+        users.forEach(this::bump);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountsChanged(AccountsChangedEvent event) {
+        bump(event.getUserId());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecategorized(TransactionsRecategorizedEvent event) {
+        event.getUserIds().forEach(this::bump);
+    }
+
+    private void addOwner(Long accountId, Set<Long> users) {
+        if (accountId == null) {
+            return;
+        }
+        Long owner = owners.get(accountId, id -> accountRepo.findOwnerIdById(id).orElse(null));
+        if (owner != null) {
+            users.add(owner);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.anudeep.bankingsystem.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * ETag handling for per-user read endpoints: answers 304 before the body is
+ * computed when the client already holds the current version.
+ */
+public class ConditionalGet {
+
+    private ConditionalGet() {
+        // Utility class
+    }
+
+    public static <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<T> body) {
+        // Browsers may keep the body but must revalidate on every use
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(body.get());
+    }
+}
@@ -0,0 +1,115 @@
+package com.anudeep.bankingsystem.util;
+
+import com.anudeep.bankingsystem.exception.ApiException;
+import com.anudeep.bankingsystem.exception.PostingPendingException;
+import com.anudeep.bankingsystem.service.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@Aspect
+@Component
+public class IdempotencyAspect {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyAspect.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyAspect(IdempotencyService idempotencyService, ObjectMapper objectMapper) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Around("@annotation(idempotent)")
+    public Object handle(ProceedingJoinPoint pjp, Idempotent idempotent) throws Throwable {
+        HttpServletRequest request = currentRequest();
+        String key = request != null ? request.getHeader(HEADER) : null;
+        if (key == null || key.isBlank()) {
+            return pjp.proceed();
+        }
+
+        key = key.trim();
+        if (key.length() > IdempotencyService.MAX_KEY_LENGTH) {
+            throw new ApiException(HEADER + " must not exceed " + IdempotencyService.MAX_KEY_LENGTH + " characters");
+        }
+
+        Long userId = AuthenticationUtil.extractUserId(SecurityContextHolder.getContext().getAuthentication());
+        IdempotencyService.Outcome outcome = idempotencyService.begin(userId, key, requestHash(request, pjp));
+
+        if (outcome.replayBody() != null) {
+            logger.info("Replaying stored response for {} {} of user {}", HEADER, key, userId);
+            return ResponseEntity.status(idempotent.status())
+                    .header("Idempotent-Replayed", "true")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(outcome.replayBody());
+        }
+
+        IdempotencyService.Reservation reservation = outcome.reservation();
+        idempotencyService.activate(reservation);
+        try {
+            Object result = pjp.proceed();
+            idempotencyService.finish(reservation, result instanceof ResponseEntity<?> entity ? entity.getBody() : result);
+            return result;
+        } catch (PostingPendingException e) {
+            // Releasing now would let a retry post a second time; only a posting that fails frees the key
+            e.outcome().whenComplete((value, failure) -> {
+                if (failure != null) {
+                    idempotencyService.abandon(reservation);
+                }
+            });
+            throw e;
+        } catch (Throwable t) {
+            idempotencyService.abandon(reservation);
+            throw t;
+        } finally {
+            idempotencyService.deactivate();
+        }
+    }
+
+    // Same key with a different endpoint or body must not replay the stored response
+    private String requestHash(HttpServletRequest request, ProceedingJoinPoint pjp) throws Exception {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+        Annotation[][] parameterAnnotations = ((MethodSignature) pjp.getSignature()).getMethod().getParameterAnnotations();
+        Object[] args = pjp.getArgs();
+        for (int i = 0; i < args.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof RequestBody) {
+                    digest.update(objectMapper.writeValueAsBytes(args[i]));
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private HttpServletRequest currentRequest() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes != null ? attributes.getRequest() : null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.anudeep.bankingsystem.util;
+
+import org.springframework.http.HttpStatus;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a posting endpoint that honours the Idempotency-Key header. A replayed
+ * key is answered with the stored response body and {@link #status()}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Idempotent {
+    HttpStatus status() default HttpStatus.CREATED;
+}
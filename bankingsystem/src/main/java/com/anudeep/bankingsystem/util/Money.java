@@ -0,0 +1,47 @@
+package com.anudeep.bankingsystem.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts as long cents, for loops that add up many amounts without
+ * allocating. Arithmetic is overflow-checked and never rounds; BigDecimal is
+ * only needed at the API and database boundary.
+ *
+ * A long holds about ±92 quadrillion in cents, slightly less than a
+ * DECIMAL(19, 2) column, so amounts taken from requests are checked with
+ * {@link #fits(BigDecimal)} before they are converted.
+ */
+public final class Money {
+    public static final BigDecimal MAX = toBigDecimal(Long.MAX_VALUE);
+    public static final BigDecimal MIN = MAX.negate();
+
+    private Money() {
+    }
+
+    // True when the amount converts to cents with no rounding and no overflow
+    public static boolean fits(BigDecimal amount) {
+        return amount.stripTrailingZeros().scale() <= 2
+                && amount.compareTo(MAX) <= 0 && amount.compareTo(MIN) >= 0;
+    }
+
+    /**
+     * Exact conversion; throws ArithmeticException for more than two decimal
+     * places or amounts outside the long range.
+     */
+    public static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+}
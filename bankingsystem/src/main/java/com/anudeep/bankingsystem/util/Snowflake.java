@@ -0,0 +1,60 @@
+package com.anudeep.bankingsystem.util;
+
+/**
+ * In-process, time-ordered id source. Ids are laid out as
+ * [41 bits ms since 2024-01-01][4 bits node][8 bits sequence], which keeps
+ * them within 53 bits so the frontend can still treat them as JS numbers.
+ * Ids from one node are strictly increasing; across nodes they are ordered
+ * by millisecond.
+ */
+public final class Snowflake {
+
+    public static final long EPOCH_MS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 4;
+    private static final int SEQUENCE_BITS = 8;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static volatile long nodeId;
+    private static long lastTimestamp = -1L;
+    private static long sequence;
+
+    private Snowflake() {
+        // Utility class
+    }
+
+    public static void configure(int node) {
+        if (node < 0 || node > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + node);
+        }
+        nodeId = node;
+    }
+
+    public static synchronized long nextId() {
+        long now = System.currentTimeMillis() - EPOCH_MS;
+
+        // Never step backwards, even if the wall clock does
+        if (now < lastTimestamp) {
+            now = lastTimestamp;
+        }
+
+        if (now == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // Sequence exhausted for this millisecond: borrow the next one
+                now = lastTimestamp + 1;
+            }
+        } else {
+            sequence = 0;
+        }
+
+        lastTimestamp = now;
+        return (now << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MS;
+    }
+}
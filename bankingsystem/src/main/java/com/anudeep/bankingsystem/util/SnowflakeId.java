@@ -0,0 +1,16 @@
+package com.anudeep.bankingsystem.util;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.*;
+
+/**
+ * Assigns the entity id from {@link Snowflake} at persist time instead of
+ * relying on an AUTO_INCREMENT column, so inserts can be JDBC-batched.
+ */
+@IdGeneratorType(SnowflakeIdGenerator.class)
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SnowflakeId {
+}
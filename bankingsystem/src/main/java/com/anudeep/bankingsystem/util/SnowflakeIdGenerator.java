@@ -0,0 +1,12 @@
+package com.anudeep.bankingsystem.util;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return Snowflake.nextId();
+    }
+}
@@ -0,0 +1,66 @@
+package com.anudeep.bankingsystem.benchmark;
+
+import com.anudeep.bankingsystem.dto.account.AccountResponse;
+import com.anudeep.bankingsystem.entity.Account;
+import com.anudeep.bankingsystem.repository.AccountRepository;
+import com.anudeep.bankingsystem.service.AccountBalanceShards;
+import com.anudeep.bankingsystem.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account list reads as a dashboard render does them: through the per-user
+ * cache against the queries a cache miss runs (the accounts plus their
+ * unconsolidated slot balances).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AccountReadBenchmark extends ApplicationState {
+
+	@Param({"10"})
+	public int accounts;
+
+	private AccountService accountService;
+	private AccountRepository accountRepo;
+	private AccountBalanceShards balanceShards;
+	private TransactionTemplate readOnly;
+	private Long userId;
+
+	@Override
+	protected void seed() {
+		userId = createUser("accounts@benchmark.local");
+		for (int i = 0; i < accounts; i++) {
+			createAccount(userId, "Account " + i, new BigDecimal("100.00"));
+		}
+
+		accountService = bean(AccountService.class);
+		accountRepo = bean(AccountRepository.class);
+		balanceShards = bean(AccountBalanceShards.class);
+		readOnly = new TransactionTemplate(bean(PlatformTransactionManager.class));
+		readOnly.setReadOnly(true);
+	}
+
+	@Benchmark
+	public List<AccountResponse> cachedList() {
+		return accountService.listForUser(userId);
+	}
+
+	@Benchmark
+	public Map<Long, BigDecimal> databaseList() {
+		return readOnly.execute(status -> {
+			List<Account> list = accountRepo.findByUserId(userId);
+			return balanceShards.effectiveBalances(list);
+		});
+	}
+}
@@ -0,0 +1,141 @@
+package com.anudeep.bankingsystem.benchmark;
+
+import com.anudeep.bankingsystem.BankingsystemApplication;
+import com.anudeep.bankingsystem.entity.Account;
+import com.anudeep.bankingsystem.entity.AppUser;
+import com.anudeep.bankingsystem.entity.Role;
+import com.anudeep.bankingsystem.repository.AccountRepository;
+import com.anudeep.bankingsystem.repository.UserRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the whole application against a throwaway MySQL container once per
+ * trial (Docker required), so the database benchmarks measure the same
+ * services, queries and caches the API uses. Subclasses add the properties
+ * of the variant under test and seed their data.
+ */
+@State(Scope.Benchmark)
+public abstract class ApplicationState {
+
+	protected static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+	private static final String[] CATEGORIES = {"Groceries", "Dining", "Transport", "Utilities", "Shopping", "Travel", "Health", null};
+	private static final String[] MERCHANTS = {"Grocer", "Coffee shop", "Rail pass", "Power bill", "Bookstore", "Airline", "Pharmacy", "Invoice"};
+	private static final int INSERT_CHUNK = 5000;
+
+	// Seeded ledger rows get ids below the Snowflake range the application generates
+	private final AtomicLong nextLedgerId = new AtomicLong(1);
+
+	private MySQLContainer<?> mysql;
+	private ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void startApplication() throws Exception {
+		mysql = new MySQLContainer<>("mysql:8.0.36").withUrlParam("rewriteBatchedStatements", "true");
+		mysql.start();
+
+		Map<String, String> settings = new LinkedHashMap<>();
+		settings.put("spring.datasource.url", mysql.getJdbcUrl());
+		settings.put("spring.datasource.username", mysql.getUsername());
+		settings.put("spring.datasource.password", mysql.getPassword());
+		settings.put("spring.jpa.hibernate.ddl-auto", "create");
+		settings.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+		settings.put("spring.jpa.show-sql", "false");
+		settings.put("server.port", "0");
+		settings.put("app.mail.enabled", "false");
+		settings.put("logging.level.root", "WARN");
+		settings.putAll(properties());
+
+		// Command-line arguments, so they win over application.properties
+		String[] args = settings.entrySet().stream()
+				.map(e -> "--" + e.getKey() + "=" + e.getValue())
+				.toArray(String[]::new);
+		context = new SpringApplicationBuilder(BankingsystemApplication.class).run(args);
+		seed();
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() {
+		if (context != null) {
+			context.close();
+		}
+		if (mysql != null) {
+			mysql.stop();
+		}
+	}
+
+	// Properties of the variant under test; @Param fields are already set
+	protected Map<String, String> properties() {
+		return Map.of();
+	}
+
+	protected abstract void seed() throws Exception;
+
+	protected <T> T bean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	protected Long createUser(String email) {
+		AppUser user = AppUser.builder().email(email).fullName("Benchmark").passwordHash("hash").role(Role.USER).build();
+		return bean(UserRepository.class).save(user).getId();
+	}
+
+	protected Long createAccount(Long userId, String name, BigDecimal balance) {
+		AppUser user = bean(UserRepository.class).getReferenceById(userId);
+		Account account = Account.builder().user(user).name(name).type("CHECKING").balance(balance).build();
+		return bean(AccountRepository.class).save(account).getId();
+	}
+
+	/**
+	 * Writes rows of history one minute apart, oldest first, alternating
+	 * deposits and categorized withdrawals. Descriptions cycle through a few
+	 * merchants and end with the row number ("Coffee shop 1234").
+	 */
+	protected void insertLedger(Long userId, Long accountId, int rows) {
+		JdbcTemplate jdbc = bean(JdbcTemplate.class);
+		String sql = "INSERT INTO transactions (id, user_id, account_id, amount, type, description, category, created_at) " +
+				"VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+		for (int from = 0; from < rows; from += INSERT_CHUNK) {
+			int to = Math.min(rows, from + INSERT_CHUNK);
+			int first = from;
+			jdbc.batchUpdate(sql, new BatchPreparedStatementSetter() {
+				@Override
+				public void setValues(PreparedStatement ps, int i) throws SQLException {
+					int row = first + i;
+					boolean deposit = row % 2 == 0;
+					ps.setLong(1, nextLedgerId.getAndIncrement());
+					ps.setLong(2, userId);
+					ps.setLong(3, accountId);
+					ps.setBigDecimal(4, deposit ? BigDecimal.valueOf(2500 + row % 1000, 2) : BigDecimal.valueOf(-(100 + row % 5000), 2));
+					ps.setString(5, deposit ? "DEPOSIT" : "WITHDRAW");
+					ps.setString(6, MERCHANTS[row % MERCHANTS.length] + " " + row);
+					ps.setString(7, deposit ? null : CATEGORIES[row / 2 % CATEGORIES.length]);
+					ps.setTimestamp(8, Timestamp.valueOf(START.plusMinutes(row)));
+				}
+
+				@Override
+				public int getBatchSize() {
+					return to - first;
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.anudeep.bankingsystem.benchmark;
+
+import com.anudeep.bankingsystem.dto.PaginatedResponse;
+import com.anudeep.bankingsystem.dto.transaction.TransactionResponse;
+import com.anudeep.bankingsystem.service.TransactionService;
+import com.anudeep.bankingsystem.util.TransactionCursor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetching one history page at a given depth: offset pagination (a COUNT
+ * plus LIMIT/OFFSET) against the keyset cursor that continues from the last
+ * row of the previous page. The cursor page should cost the same at page 10
+ * and at page 10,000.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryPagingBenchmark extends ApplicationState {
+
+	private static final int PAGE_SIZE = 20;
+
+	@Param({"10", "10000"})
+	public int page;
+
+	private TransactionService transactions;
+	private Long userId;
+	private String cursor;
+
+	@Override
+	protected void seed() {
+		userId = createUser("history@benchmark.local");
+		Long accountId = createAccount(userId, "Checking", BigDecimal.ZERO);
+		insertLedger(userId, accountId, (page + 2) * PAGE_SIZE);
+
+		// The last row of the previous page, as the client would get it in nextCursor
+		cursor = bean(JdbcTemplate.class).queryForObject(
+				"SELECT created_at, id FROM transactions WHERE user_id = ? ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?",
+				(rs, i) -> new TransactionCursor(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2)).encode(),
+				userId, page * PAGE_SIZE - 1);
+		transactions = bean(TransactionService.class);
+	}
+
+	@Benchmark
+	public PaginatedResponse<TransactionResponse> offsetPage() {
+		return transactions.listForUserPaginated(userId, page, PAGE_SIZE);
+	}
+
+	@Benchmark
+	public PaginatedResponse<TransactionResponse> cursorPage() {
+		return transactions.listForUserByCursor(userId, cursor, PAGE_SIZE, false);
+	}
+}
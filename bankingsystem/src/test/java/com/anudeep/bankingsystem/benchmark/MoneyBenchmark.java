@@ -0,0 +1,66 @@
+package com.anudeep.bankingsystem.benchmark;
+
+import com.anudeep.bankingsystem.util.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing amounts as BigDecimal against long cents, without a database.
+ * centsFromBigDecimal is what the reducers over query results do (convert
+ * each amount, add in cents); centsFromColumn is the column store's loop.
+ * Run with -prof gc: the BigDecimal sum allocates a new total per element,
+ * the conversion still allocates per element and the column loop nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+	@Param({"100000"})
+	public int size;
+
+	private BigDecimal[] amounts;
+	private long[] cents;
+
+	@Setup
+	public void generate() {
+		SplittableRandom random = new SplittableRandom(42);
+		cents = new long[size];
+		Arrays.setAll(cents, i -> random.nextLong(-500_000, 500_000));
+		amounts = Arrays.stream(cents).mapToObj(Money::toBigDecimal).toArray(BigDecimal[]::new);
+	}
+
+	@Benchmark
+	public BigDecimal bigDecimalSum() {
+		BigDecimal total = BigDecimal.ZERO;
+		for (BigDecimal amount : amounts) {
+			total = total.add(amount);
+		}
+		return total;
+	}
+
+	@Benchmark
+	public long centsFromBigDecimal() {
+		long total = 0;
+		for (BigDecimal amount : amounts) {
+			total = Money.add(total, Money.cents(amount));
+		}
+		return total;
+	}
+
+	@Benchmark
+	public long centsFromColumn() {
+		long total = 0;
+		for (long c : cents) {
+			total = Money.add(total, c);
+		}
+		return total;
+	}
+}
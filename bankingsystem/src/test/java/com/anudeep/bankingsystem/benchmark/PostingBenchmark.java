@@ -0,0 +1,86 @@
+package com.anudeep.bankingsystem.benchmark;
+
+import com.anudeep.bankingsystem.dto.transaction.TransactionRequest;
+import com.anudeep.bankingsystem.dto.transaction.TransactionResponse;
+import com.anudeep.bankingsystem.service.AccountService;
+import com.anudeep.bankingsystem.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Posting throughput on a hot-account workload: every benchmark thread owns
+ * a source account and moves money into one shared account.
+ *
+ * - Scaling with cores: run with -t 1, -t 2, ... up to the core count.
+ * - engine=jpa vs engine=sequenced: one transaction per posting vs
+ *   single-writer group commit.
+ * - slots=0 vs slots=16: credits to a single balance row vs to sub-balance
+ *   slots.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostingBenchmark extends ApplicationState {
+
+	private static final int SOURCES = 256;
+	private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+	@Param({"jpa", "sequenced"})
+	public String engine;
+
+	@Param({"0", "16"})
+	public int slots;
+
+	private final List<Long> sourceIds = new ArrayList<>();
+	private final AtomicInteger nextSource = new AtomicInteger();
+	private TransactionService transactions;
+	private Long userId;
+	private Long hotAccountId;
+
+	@State(Scope.Thread)
+	public static class Caller {
+		Long sourceId;
+
+		@Setup(Level.Trial)
+		public void pickSource(PostingBenchmark benchmark) {
+			sourceId = benchmark.sourceIds.get(benchmark.nextSource.getAndIncrement() % SOURCES);
+		}
+	}
+
+	@Override
+	protected Map<String, String> properties() {
+		return Map.of("app.posting.engine", engine);
+	}
+
+	@Override
+	protected void seed() {
+		userId = createUser("posting@benchmark.local");
+		hotAccountId = createAccount(userId, "Collection", BigDecimal.ZERO);
+		for (int i = 0; i < SOURCES; i++) {
+			sourceIds.add(createAccount(userId, "Source " + i, new BigDecimal("1000000000.00")));
+		}
+		if (slots > 0) {
+			bean(AccountService.class).enableBalanceSharding(userId, hotAccountId, slots);
+		}
+		transactions = bean(TransactionService.class);
+	}
+
+	@Benchmark
+	public TransactionResponse transferToHotAccount(Caller caller) {
+		return transactions.transfer(userId, new TransactionRequest(caller.sourceId, hotAccountId, AMOUNT, "Benchmark transfer"));
+	}
+
+	@Benchmark
+	public TransactionResponse depositToHotAccount() {
+		return transactions.deposit(userId, new TransactionRequest(hotAccountId, null, AMOUNT, "Benchmark deposit"));
+	}
+}
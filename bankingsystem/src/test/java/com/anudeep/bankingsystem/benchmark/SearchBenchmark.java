@@ -0,0 +1,82 @@
+package com.anudeep.bankingsystem.benchmark;
+
+import com.anudeep.bankingsystem.dto.PaginatedResponse;
+import com.anudeep.bankingsystem.dto.transaction.TransactionResponse;
+import com.anudeep.bankingsystem.repository.TransactionRepository;
+import com.anudeep.bankingsystem.service.TransactionSearchIndex;
+import com.anudeep.bankingsystem.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description search over one user's history: the LIKE query /search used
+ * to run against the in-memory trigram index (warmed before measuring).
+ * "Invoice 4711" matches a handful of rows, "Coffee" one row in eight.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark extends ApplicationState {
+
+	@Param({"1000000"})
+	public int rows;
+
+	@Param({"Invoice 4711", "Coffee"})
+	public String query;
+
+	private TransactionRepository txnRepo;
+	private TransactionSearchIndex searchIndex;
+	private TransactionService transactions;
+	private Long userId;
+
+	@Override
+	protected Map<String, String> properties() {
+		return Map.of(
+				"app.search.index.max-docs-per-user", String.valueOf(rows),
+				"app.search.index.max-docs", String.valueOf(rows));
+	}
+
+	@Override
+	protected void seed() {
+		userId = createUser("search@benchmark.local");
+		Long accountId = createAccount(userId, "Checking", BigDecimal.ZERO);
+		insertLedger(userId, accountId, rows);
+
+		txnRepo = bean(TransactionRepository.class);
+		searchIndex = bean(TransactionSearchIndex.class);
+		transactions = bean(TransactionService.class);
+		if (searchIndex.search(userId, query, 0, 1).isEmpty()) {
+			throw new IllegalStateException("Index was not built for the benchmark user");
+		}
+	}
+
+	@Benchmark
+	public List<TransactionResponse> likeQuery() {
+		return txnRepo.findByUserIdAndDescriptionContaining(userId, query);
+	}
+
+	@Benchmark
+	public Optional<TransactionSearchIndex.Hits> indexLookup() {
+		return searchIndex.search(userId, query, 0, Integer.MAX_VALUE);
+	}
+
+	// /search: index hits loaded and returned newest first
+	@Benchmark
+	public List<TransactionResponse> search() {
+		return transactions.searchTransactions(userId, query);
+	}
+
+	// /search/ranked: first page of 20
+	@Benchmark
+	public PaginatedResponse<TransactionResponse> rankedFirstPage() {
+		return transactions.searchTransactionsRanked(userId, query, 0, 20);
+	}
+}
@@ -0,0 +1,83 @@
+package com.anudeep.bankingsystem.benchmark;
+
+import com.anudeep.bankingsystem.dto.analytics.CategorySpendingRow;
+import com.anudeep.bankingsystem.entity.Transaction;
+import com.anudeep.bankingsystem.repository.TransactionRepository;
+import com.anudeep.bankingsystem.service.AnalyticsColumnStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Spending by category for one user, three ways: the stream pipeline the
+ * endpoint used to run over every loaded entity, the grouped SQL query that
+ * replaced it, and the column store loop over primitive arrays. Run with
+ * -prof gc to compare allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpendingAnalyticsBenchmark extends ApplicationState {
+
+	@Param({"100000"})
+	public int rows;
+
+	private TransactionRepository txnRepo;
+	private AnalyticsColumnStore columnStore;
+	private TransactionTemplate readOnly;
+	private Long userId;
+
+	@Override
+	protected Map<String, String> properties() {
+		return Map.of(
+				"app.analytics.columns.enabled", "true",
+				"app.analytics.columns.max-rows-per-user", String.valueOf(rows),
+				"app.analytics.columns.max-rows", String.valueOf(rows));
+	}
+
+	@Override
+	protected void seed() {
+		userId = createUser("analytics@benchmark.local");
+		Long accountId = createAccount(userId, "Checking", BigDecimal.ZERO);
+		insertLedger(userId, accountId, rows);
+
+		txnRepo = bean(TransactionRepository.class);
+		columnStore = bean(AnalyticsColumnStore.class);
+		readOnly = new TransactionTemplate(bean(PlatformTransactionManager.class));
+		readOnly.setReadOnly(true);
+		if (columnStore.spendingByCategory(userId, null, null, null).isEmpty()) {
+			throw new IllegalStateException("Column store did not load the benchmark user");
+		}
+	}
+
+	@Benchmark
+	public Map<String, BigDecimal> entityStream() {
+		return readOnly.execute(status -> {
+			List<Transaction> transactions = txnRepo.findByUserIdOrderByCreatedAtDesc(userId);
+			return transactions.stream()
+					.filter(t -> t.getCategory() != null)
+					.collect(Collectors.groupingBy(
+							Transaction::getCategory,
+							Collectors.reducing(BigDecimal.ZERO, t -> t.getAmount().abs(), BigDecimal::add)));
+		});
+	}
+
+	@Benchmark
+	public List<CategorySpendingRow> sqlGroupBy() {
+		return txnRepo.sumSpendingByCategory(userId, null, null, null);
+	}
+
+	@Benchmark
+	public List<CategorySpendingRow> columnStore() {
+		return columnStore.spendingByCategory(userId, null, null, null).orElseThrow();
+	}
+}
@@ -0,0 +1,40 @@
+package com.anudeep.bankingsystem.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PostingEventPublisherTest {
+
+	private final ApplicationEventPublisher delegate = mock(ApplicationEventPublisher.class);
+	private final PostingEventPublisher publisher = new PostingEventPublisher(delegate);
+
+	@Test
+	void holdsEventsBackWhileCollecting() {
+		List<Object> held = new ArrayList<>();
+
+		publisher.collecting(held, () -> {
+			publisher.publish("posted");
+			return null;
+		});
+
+		assertEquals(List.of("posted"), held);
+		verifyNoInteractions(delegate);
+	}
+
+	@Test
+	void publishesDirectlyOutsideCollectingEvenAfterAFailure() {
+		assertThrows(IllegalStateException.class, () -> publisher.collecting(new ArrayList<>(), () -> {
+			throw new IllegalStateException("rejected");
+		}));
+
+		publisher.publish("posted");
+
+		verify(delegate).publishEvent("posted");
+	}
+}
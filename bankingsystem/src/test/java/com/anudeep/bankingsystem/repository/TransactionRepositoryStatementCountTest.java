@@ -0,0 +1,149 @@
+package com.anudeep.bankingsystem.repository;
+
+import com.anudeep.bankingsystem.dto.transaction.TransactionDetailRow;
+import com.anudeep.bankingsystem.dto.transaction.TransactionResponse;
+import com.anudeep.bankingsystem.entity.Account;
+import com.anudeep.bankingsystem.entity.AppUser;
+import com.anudeep.bankingsystem.entity.Role;
+import com.anudeep.bankingsystem.entity.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Locks in the statement count of the history, cursor paging and detail
+ * reads: each is a fixed number of statements however many rows a page holds.
+ */
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:ledger;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionRepositoryStatementCountTest {
+
+	private static final int ROWS = 60;
+	private static final int PAGE_SIZE = 25;
+	private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+	@Autowired
+	private TransactionRepository txnRepo;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private Long userId;
+	private Long transferId;
+
+	@BeforeEach
+	void seed() {
+		AppUser user = user("owner@example.com", "Owner");
+		AppUser other = user("payee@example.com", "Payee");
+		Account checking = account(user, "Checking");
+		Account payee = account(other, "Payee checking");
+
+		// Every row links to an account and half of them to a related account
+		// owned by another user, so a lazy association would show up per row
+		for (int i = 0; i < ROWS; i++) {
+			boolean transfer = i % 2 == 0;
+			Transaction t = Transaction.builder()
+					.user(user)
+					.account(checking)
+					.relatedAccount(transfer ? payee : null)
+					.amount(new BigDecimal(transfer ? "-5.00" : "10.00"))
+					.type(transfer ? "TRANSFER_OUT" : "DEPOSIT")
+					.description("row " + i)
+					.createdAt(START.plusMinutes(i))
+					.build();
+			entityManager.persist(t);
+			if (transfer) {
+				transferId = t.getId();
+			}
+		}
+
+		entityManager.flush();
+		entityManager.clear();
+		userId = user.getId();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void historyPageIsOneQueryPlusCount() {
+		Page<TransactionResponse> page = txnRepo.findByUserIdPaginated(userId, PageRequest.of(0, PAGE_SIZE));
+
+		assertEquals(PAGE_SIZE, page.getContent().size());
+		assertEquals(ROWS, page.getTotalElements());
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void cursorPagesAreOneQueryEach() {
+		List<TransactionResponse> first = txnRepo.findFirstPageByUserId(userId, Limit.of(PAGE_SIZE));
+		TransactionResponse last = first.get(first.size() - 1);
+		List<TransactionResponse> second = txnRepo.findPageByUserIdAfter(userId, last.getCreatedAt(), last.getId(), Limit.of(PAGE_SIZE));
+
+		assertEquals(PAGE_SIZE, first.size());
+		assertEquals(PAGE_SIZE, second.size());
+		assertTrue(second.get(0).getCreatedAt().isBefore(last.getCreatedAt()));
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void transactionDetailsAreOneQuery() {
+		Optional<TransactionDetailRow> row = txnRepo.findDetailRowById(transferId);
+
+		assertTrue(row.isPresent());
+		assertEquals("Checking", row.get().getAccountName());
+		assertEquals("Payee checking", row.get().getRelatedAccountName());
+		assertEquals("Payee", row.get().getRelatedUserName());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	private AppUser user(String email, String fullName) {
+		AppUser user = AppUser.builder()
+				.email(email)
+				.fullName(fullName)
+				.passwordHash("hash")
+				.role(Role.USER)
+				.build();
+		entityManager.persist(user);
+		return user;
+	}
+
+	private Account account(AppUser owner, String name) {
+		Account account = Account.builder()
+				.user(owner)
+				.name(name)
+				.type("CHECKING")
+				.balance(BigDecimal.ZERO)
+				.build();
+		entityManager.persist(account);
+		return account;
+	}
+}
@@ -0,0 +1,100 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.account.AccountResponse;
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
+import com.anudeep.bankingsystem.event.LocalCacheInvalidationBus;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountReadCacheTest {
+
+	private final AccountReadCache cache = new AccountReadCache(new LocalCacheInvalidationBus(), new SimpleMeterRegistry(), 100, 60);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private List<AccountResponse> load(Long userId) {
+		loads.incrementAndGet();
+		return List.of(new AccountResponse(userId * 10, "Main", "SAVINGS", BigDecimal.TEN));
+	}
+
+	private static PostingCommittedEvent transfer(Long fromAccountId, Long toAccountId) {
+		return new PostingCommittedEvent(List.of(
+				new PostedTransaction(1L, 1L, fromAccountId, toAccountId, "TRANSFER_OUT", BigDecimal.ONE.negate(), "t", null),
+				new PostedTransaction(2L, 1L, toAccountId, fromAccountId, "TRANSFER_IN", BigDecimal.ONE, "t", null)));
+	}
+
+	@Test
+	void servesRepeatedReadsFromCache() {
+		cache.listForUser(1L, this::load);
+		cache.listForUser(1L, this::load);
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void postingOnAnotherUsersAccountInvalidatesThatUser() {
+		cache.listForUser(1L, this::load);
+		cache.listForUser(2L, this::load);
+
+		cache.onPostingCommitted(transfer(10L, 20L));
+		cache.listForUser(1L, this::load);
+		cache.listForUser(2L, this::load);
+
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void accountChangesInvalidateOnlyThatUser() {
+		cache.listForUser(1L, this::load);
+		cache.listForUser(2L, this::load);
+
+		cache.onAccountsChanged(new AccountsChangedEvent(2L));
+		cache.listForUser(1L, this::load);
+		cache.listForUser(2L, this::load);
+
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void peersDropTheRecipientOfATransferPostedElsewhere() {
+		LocalCacheInvalidationBus bus = new LocalCacheInvalidationBus();
+		AccountReadCache local = new AccountReadCache(bus, new SimpleMeterRegistry(), 100, 60);
+		AccountReadCache peer = new AccountReadCache(bus, new SimpleMeterRegistry(), 100, 60);
+		peer.listForUser(2L, this::load);
+
+		// The posting instance caches neither user
+		local.onPostingCommitted(transfer(10L, 20L));
+		peer.listForUser(2L, this::load);
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void lateRemovalOfAnOldEntryKeepsTheOwnersOfItsReload() {
+		Queue<Runnable> removals = new ArrayDeque<>();
+		AccountReadCache deferred = new AccountReadCache(new LocalCacheInvalidationBus(), new SimpleMeterRegistry(), 100, 60, removals::add);
+		deferred.listForUser(2L, this::load);
+
+		deferred.invalidateUser(2L);
+		deferred.listForUser(2L, this::load);
+		while (!removals.isEmpty()) {
+			removals.poll().run();
+		}
+
+		// Account 20 must still lead to user 2 when user 1 transfers to it
+		deferred.onPostingCommitted(new PostingCommittedEvent(List.of(
+				new PostedTransaction(3L, 1L, 20L, 10L, "TRANSFER_IN", BigDecimal.ONE, "t", null))));
+		deferred.listForUser(2L, this::load);
+
+		assertEquals(3, loads.get());
+	}
+}
@@ -0,0 +1,194 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.analytics.AccountActivityRow;
+import com.anudeep.bankingsystem.entity.Account;
+import com.anudeep.bankingsystem.entity.AppUser;
+import com.anudeep.bankingsystem.entity.Role;
+import com.anudeep.bankingsystem.entity.Transaction;
+import com.anudeep.bankingsystem.event.AccountShardingDisabledEvent;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the counter upsert, the rebuild and the reconcile statements on MySQL
+ * and compares the counters with the ledger. Data is committed, like in
+ * production, because the rebuild after a sharding change runs in its own
+ * transaction once the change has committed.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
+		"spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(AccountStatsService.class)
+class AccountStatsServiceMySqlTest {
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0.36");
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+	@Autowired
+	private AccountStatsService statsService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@MockBean
+	private AccountBalanceShards balanceShards;
+
+	private TransactionTemplate txTemplate;
+	private AppUser user;
+	private Account checking;
+	private Account sharded;
+	private final List<PostedTransaction> ledger = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		txTemplate = new TransactionTemplate(transactionManager);
+		txTemplate.executeWithoutResult(status -> {
+			user = AppUser.builder().email("stats@example.com").fullName("Stats").passwordHash("hash").role(Role.USER).build();
+			entityManager.persist(user);
+			checking = account("Checking", 0);
+			sharded = account("Payroll", 4);
+		});
+		when(balanceShards.isSharded(any())).thenAnswer(inv -> sharded.getId().equals(inv.getArgument(0)));
+
+		// Postings commit in small groups, each with its counter upsert
+		Random random = new Random(7);
+		for (int group = 0; group < 40; group++) {
+			txTemplate.executeWithoutResult(status -> {
+				List<PostedTransaction> rows = new ArrayList<>();
+				for (int i = 0; i < 5; i++) {
+					boolean credit = random.nextBoolean();
+					Transaction t = Transaction.builder()
+							.user(user)
+							.account(random.nextBoolean() ? checking : sharded)
+							.amount(BigDecimal.valueOf(random.nextInt(10_000) + 1, 2).multiply(BigDecimal.valueOf(credit ? 1 : -1)))
+							.type(credit ? "DEPOSIT" : "WITHDRAW")
+							.description("t")
+							.createdAt(START.plusMinutes(random.nextInt(100_000)))
+							.build();
+					entityManager.persist(t);
+					rows.add(PostedTransaction.of(t));
+				}
+				entityManager.flush();
+				statsService.onPosting(new PostingCommittedEvent(rows));
+				ledger.addAll(rows);
+			});
+		}
+	}
+
+	@AfterEach
+	void clean() {
+		jdbcTemplate.update("DELETE FROM account_stats");
+		jdbcTemplate.update("DELETE FROM transactions");
+		jdbcTemplate.update("DELETE FROM accounts");
+		jdbcTemplate.update("DELETE FROM users");
+	}
+
+	private Account account(String name, int slots) {
+		Account account = Account.builder().user(user).name(name).type("CHECKING")
+				.balance(BigDecimal.ZERO).balanceSlots(slots).build();
+		entityManager.persist(account);
+		return account;
+	}
+
+	private void assertMatchesLedger(AccountActivityRow row) {
+		List<PostedTransaction> rows = ledger.stream().filter(t -> t.getAccountId().equals(row.getAccountId())).toList();
+		BigDecimal inflow = rows.stream().map(PostedTransaction::getAmount).filter(a -> a.signum() > 0)
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		BigDecimal outflow = rows.stream().map(PostedTransaction::getAmount).filter(a -> a.signum() < 0)
+				.map(BigDecimal::negate).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+		assertEquals((long) rows.size(), row.getTransactionCount());
+		assertEquals(rows.stream().map(PostedTransaction::getCreatedAt).max(Comparator.naturalOrder()).orElse(null),
+				row.getLastActivityAt());
+		assertEquals(0, inflow.compareTo(row.getInflow()));
+		assertEquals(0, outflow.compareTo(row.getOutflow()));
+	}
+
+	private AccountActivityRow activity(Account account) {
+		return statsService.activityForUser(user.getId()).stream()
+				.filter(r -> r.getAccountId().equals(account.getId()))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private Long counterOf(Account account) {
+		List<Long> counts = jdbcTemplate.queryForList(
+				"SELECT txn_count FROM account_stats WHERE account_id = ?", Long.class, account.getId());
+		return counts.isEmpty() ? null : counts.get(0);
+	}
+
+	@Test
+	void countersFollowPostingsAndShardedAccountsAreReadFromTheLedger() {
+		assertMatchesLedger(activity(checking));
+		assertMatchesLedger(activity(sharded));
+		assertNull(counterOf(sharded));
+	}
+
+	@Test
+	void disablingShardingRebuildsOnlyThatAccount() {
+		jdbcTemplate.update("UPDATE account_stats SET txn_count = 999 WHERE account_id = ?", checking.getId());
+
+		txTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.update("UPDATE accounts SET balance_slots = 0 WHERE id = ?", sharded.getId());
+			eventPublisher.publishEvent(new AccountShardingDisabledEvent(sharded.getId()));
+		});
+
+		assertMatchesLedger(activity(sharded));
+		assertEquals(ledger.stream().filter(t -> t.getAccountId().equals(sharded.getId())).count(), counterOf(sharded));
+		assertEquals(999L, counterOf(checking));
+	}
+
+	@Test
+	void reconcileRebuildsDriftedCounters() {
+		jdbcTemplate.update("UPDATE account_stats SET txn_count = 999 WHERE account_id = ?", checking.getId());
+
+		statsService.reconcile();
+
+		assertMatchesLedger(activity(checking));
+		assertNull(counterOf(sharded));
+	}
+}
@@ -0,0 +1,127 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.analytics.CategorySpendingRow;
+import com.anudeep.bankingsystem.event.LocalCacheInvalidationBus;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.event.TransactionsRecategorizedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AnalyticsColumnStoreTest {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+	// Category codes: 0 = FOOD, 1 = RENT
+	private AnalyticsColumnStore.UserColumns columns() {
+		AnalyticsColumnStore.UserColumns columns = new AnalyticsColumnStore.UserColumns();
+		columns.append(1L, 10L, -1250, (short) 0, AnalyticsColumnStore.epochMicros(DAY.plusHours(1)));
+		columns.append(2L, 10L, -80000, (short) 1, AnalyticsColumnStore.epochMicros(DAY.plusDays(1)));
+		columns.append(3L, 20L, -750, (short) 0, AnalyticsColumnStore.epochMicros(DAY.plusDays(2)));
+		columns.append(4L, 20L, 5000, (short) -1, AnalyticsColumnStore.epochMicros(DAY.plusDays(2)));
+		return columns;
+	}
+
+	@Test
+	void sumsAbsoluteAmountsOfCategorizedRowsWithinTheWindow() {
+		long[] totals = new long[2];
+		long[] counts = new long[2];
+
+		columns().sumByCategory(AnalyticsColumnStore.epochMicros(DAY), AnalyticsColumnStore.epochMicros(DAY.plusDays(2)),
+				false, 0L, totals, counts);
+
+		assertArrayEquals(new long[]{1250, 80000}, totals);
+		assertArrayEquals(new long[]{1, 1}, counts);
+	}
+
+	@Test
+	void filtersByAccountAndAppliesNewCategories() {
+		AnalyticsColumnStore.UserColumns columns = columns();
+		columns.setCategories(Map.of(4L, (short) 1));
+		long[] totals = new long[2];
+		long[] counts = new long[2];
+
+		columns.sumByCategory(Long.MIN_VALUE, Long.MAX_VALUE, true, 20L, totals, counts);
+
+		assertArrayEquals(new long[]{750, 5000}, totals);
+		assertArrayEquals(new long[]{1, 1}, counts);
+	}
+
+	// Users start with an empty ledger; rows arrive through postings
+	private static JdbcTemplate emptyLedger() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyLong())).thenReturn(0);
+		return jdbcTemplate;
+	}
+
+	private static AnalyticsColumnStore store(JdbcTemplate jdbcTemplate, LocalCacheInvalidationBus bus, long maxRows) {
+		return new AnalyticsColumnStore(jdbcTemplate, bus, new SimpleMeterRegistry(), true, 100, 1000, maxRows);
+	}
+
+	private static PostingCommittedEvent withdrawal(long id, long userId, String amount) {
+		return new PostingCommittedEvent(List.of(
+				new PostedTransaction(id, userId, userId * 10, null, "WITHDRAW", new BigDecimal(amount).negate(), "w", DAY)));
+	}
+
+	private static List<CategorySpendingRow> spending(AnalyticsColumnStore store, long userId) {
+		return store.spendingByCategory(userId, null, null, null).orElseThrow();
+	}
+
+	@Test
+	void categoryThatArrivesBeforeTheRowIsAppliedOnAppend() {
+		AnalyticsColumnStore store = store(emptyLedger(), new LocalCacheInvalidationBus(), 1000);
+		spending(store, 1L);
+
+		store.onRecategorized(new TransactionsRecategorizedEvent(Map.of(5L, "Food"), List.of(1L)));
+		store.onPostingCommitted(withdrawal(5L, 1L, "12.50"));
+
+		List<CategorySpendingRow> rows = spending(store, 1L);
+		assertEquals(1, rows.size());
+		assertEquals("Food", rows.get(0).getCategory());
+		assertEquals(0, new BigDecimal("12.50").compareTo(rows.get(0).getTotal()));
+	}
+
+	@Test
+	void peersApplyPostingsAndCategoriesFromAnotherInstance() {
+		LocalCacheInvalidationBus bus = new LocalCacheInvalidationBus();
+		AnalyticsColumnStore local = store(emptyLedger(), bus, 1000);
+		AnalyticsColumnStore peer = store(emptyLedger(), bus, 1000);
+		spending(peer, 1L);
+
+		local.onPostingCommitted(withdrawal(5L, 1L, "3.00"));
+		local.onRecategorized(new TransactionsRecategorizedEvent(Map.of(5L, "Rent"), List.of(1L)));
+
+		List<CategorySpendingRow> rows = spending(peer, 1L);
+		assertEquals(1, rows.size());
+		assertEquals("Rent", rows.get(0).getCategory());
+	}
+
+	@Test
+	void dropsLeastRecentlyUsedUsersOverTheRowBudget() {
+		JdbcTemplate jdbcTemplate = emptyLedger();
+		AnalyticsColumnStore store = store(jdbcTemplate, new LocalCacheInvalidationBus(), 3);
+		spending(store, 1L);
+		spending(store, 2L);
+
+		store.onPostingCommitted(withdrawal(1L, 1L, "1.00"));
+		store.onPostingCommitted(withdrawal(2L, 1L, "1.00"));
+		store.onPostingCommitted(withdrawal(3L, 2L, "1.00"));
+		store.onPostingCommitted(withdrawal(4L, 2L, "1.00"));
+		spending(store, 2L);
+		spending(store, 1L);
+
+		// Four rows exceed the budget of three: user 1 was dropped and is loaded again
+		verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Integer.class), eq(1L));
+		verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Integer.class), eq(2L));
+	}
+}
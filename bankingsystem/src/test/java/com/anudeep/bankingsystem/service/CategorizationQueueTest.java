@@ -0,0 +1,49 @@
+package com.anudeep.bankingsystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CategorizationQueueTest {
+
+	private final AiService aiService = mock(AiService.class);
+	private final CategorizationQueue queue = new CategorizationQueue(aiService, new SimpleMeterRegistry(), 100, 1, 10, 5000);
+
+	@AfterEach
+	void stop() {
+		queue.stop();
+	}
+
+	@Test
+	void returnsOnlyAfterTheBatchIsWritten() throws Exception {
+		queue.start();
+
+		queue.categorizeAndWait(List.of(1L, 2L));
+
+		verify(aiService).categorizeBatch(List.of(1L, 2L));
+	}
+
+	@Test
+	void failedBatchIsNotAcknowledged() {
+		doThrow(new IllegalStateException("model down")).when(aiService).categorizeBatch(anyList());
+		queue.start();
+
+		// The outbox event stays pending and is retried
+		assertThrows(IllegalStateException.class, () -> queue.categorizeAndWait(List.of(1L)));
+	}
+
+	@Test
+	void rejectsIdsAfterStop() {
+		queue.start();
+		queue.stop();
+
+		assertThrows(IllegalStateException.class, () -> queue.categorizeAndWait(List.of(1L)));
+		verifyNoInteractions(aiService);
+	}
+}
@@ -0,0 +1,102 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.analytics.AccountSummaryResponse;
+import com.anudeep.bankingsystem.dto.analytics.DashboardSnapshot;
+import com.anudeep.bankingsystem.dto.analytics.DashboardSummaryResponse;
+import com.anudeep.bankingsystem.event.LocalCacheInvalidationBus;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardSnapshotCacheTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+	private final DashboardSnapshotCache cache = new DashboardSnapshotCache(new LocalCacheInvalidationBus(), new SimpleMeterRegistry(), 100, 300);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private DashboardSnapshot load(Long userId) {
+		loads.incrementAndGet();
+		return DashboardSnapshot.builder()
+				.summary(DashboardSummaryResponse.builder()
+						.totalBalance(new BigDecimal("100"))
+						.totalIncome(new BigDecimal("100"))
+						.totalExpense(BigDecimal.ZERO)
+						.netSavings(new BigDecimal("100"))
+						.transactionCount(1)
+						.accountCount(1)
+						.build())
+				.accounts(List.of(AccountSummaryResponse.builder()
+						.accountId(userId * 10)
+						.balance(new BigDecimal("100"))
+						.transactionCount(1)
+						.lastActivityAt(NOW.minusDays(1))
+						.inflow(new BigDecimal("100"))
+						.outflow(BigDecimal.ZERO)
+						.build()))
+				.recentTransactions(List.of())
+				.build();
+	}
+
+	private static PostingCommittedEvent transfer(Long fromAccountId, Long toAccountId, String amount) {
+		BigDecimal value = new BigDecimal(amount);
+		return new PostingCommittedEvent(List.of(
+				new PostedTransaction(5L, 1L, fromAccountId, toAccountId, "TRANSFER_OUT", value.negate(), "t", NOW),
+				new PostedTransaction(6L, 1L, toAccountId, fromAccountId, "TRANSFER_IN", value, "t", NOW)));
+	}
+
+	@Test
+	void appliesPostingsToBothUsersWithoutReloading() {
+		cache.get(1L, this::load);
+		cache.get(2L, this::load);
+
+		cache.onPostingCommitted(transfer(10L, 20L, "30"));
+		DashboardSnapshot sender = cache.get(1L, this::load);
+		DashboardSnapshot recipient = cache.get(2L, this::load);
+
+		assertEquals(2, loads.get());
+		assertEquals(0, new BigDecimal("70").compareTo(sender.getSummary().getTotalBalance()));
+		assertEquals(3, sender.getSummary().getTransactionCount());
+		assertEquals(List.of(6L, 5L), sender.getRecentTransactions().stream().map(r -> r.getId()).toList());
+		assertEquals(0, new BigDecimal("30").compareTo(sender.getAccounts().get(0).getOutflow()));
+
+		// The TRANSFER_IN row belongs to the sender, only the recipient's balance moves
+		assertEquals(0, new BigDecimal("130").compareTo(recipient.getSummary().getTotalBalance()));
+		assertEquals(1, recipient.getSummary().getTransactionCount());
+		assertEquals(NOW, recipient.getAccounts().get(0).getLastActivityAt());
+	}
+
+	@Test
+	void depositsAndWithdrawalsMoveIncomeAndExpense() {
+		cache.get(1L, this::load);
+
+		cache.onPostingCommitted(new PostingCommittedEvent(List.of(
+				new PostedTransaction(7L, 1L, 10L, null, "DEPOSIT", new BigDecimal("50"), "d", NOW),
+				new PostedTransaction(8L, 1L, 10L, null, "WITHDRAW", new BigDecimal("-20"), "w", NOW))));
+		DashboardSummaryResponse summary = cache.get(1L, this::load).getSummary();
+
+		assertEquals(0, new BigDecimal("150").compareTo(summary.getTotalIncome()));
+		assertEquals(0, new BigDecimal("20").compareTo(summary.getTotalExpense()));
+		assertEquals(0, new BigDecimal("130").compareTo(summary.getNetSavings()));
+	}
+
+	@Test
+	void reloadsSnapshotThatMayAlreadyIncludeThePosting() {
+		PostingCommittedEvent event = transfer(10L, 20L, "30");
+		cache.get(1L, this::load);
+
+		cache.onPostingCommitted(event);
+		DashboardSnapshot snapshot = cache.get(1L, this::load);
+
+		assertEquals(2, loads.get());
+		assertEquals(0, new BigDecimal("100").compareTo(snapshot.getSummary().getTotalBalance()));
+	}
+}
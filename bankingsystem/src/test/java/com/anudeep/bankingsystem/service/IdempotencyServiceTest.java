@@ -0,0 +1,52 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.entity.IdempotencyKey;
+import com.anudeep.bankingsystem.exception.ConflictException;
+import com.anudeep.bankingsystem.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+	private final IdempotencyKeyRepository repo = mock(IdempotencyKeyRepository.class);
+	private final IdempotencyService service = new IdempotencyService(
+			repo, new ObjectMapper(), mock(PlatformTransactionManager.class), 100, 24);
+
+	@AfterEach
+	void clear() {
+		service.deactivate();
+	}
+
+	private IdempotencyService.Reservation reserve() {
+		when(repo.saveAndFlush(any())).thenReturn(IdempotencyKey.builder().id(7L).build());
+		IdempotencyService.Reservation reservation = service.begin(1L, "k", "hash").reservation();
+		service.activate(reservation);
+		return reservation;
+	}
+
+	@Test
+	void completesTheKeyInsideThePosting() {
+		reserve();
+		when(repo.complete(eq(7L), eq("\"ok\""), any())).thenReturn(1);
+
+		assertEquals("ok", service.bindToCurrentRequest(() -> "ok").get());
+	}
+
+	@Test
+	void failsThePostingWhenTheReservationIsGone() {
+		reserve();
+		when(repo.complete(eq(7L), anyString(), any())).thenReturn(0);
+		Supplier<String> posting = service.bindToCurrentRequest(() -> "ok");
+
+		// Committing would post twice if a retry has reserved the key again
+		assertThrows(ConflictException.class, posting::get);
+	}
+}
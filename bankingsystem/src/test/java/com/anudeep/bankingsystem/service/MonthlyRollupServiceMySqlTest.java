@@ -0,0 +1,175 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.analytics.MonthlySummaryResponse;
+import com.anudeep.bankingsystem.entity.Account;
+import com.anudeep.bankingsystem.entity.AppUser;
+import com.anudeep.bankingsystem.entity.Role;
+import com.anudeep.bankingsystem.entity.Transaction;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the rollup's UPSERT, MONTH_TOTALS and REBUILD_USER statements on MySQL
+ * and compares the summaries with a recomputation from the ledger rows.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
+		"spring.jpa.show-sql=false",
+		"app.analytics.rollup.backfill-on-startup=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(MonthlyRollupService.class)
+class MonthlyRollupServiceMySqlTest {
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0.36");
+
+	private static final String[] TYPES = {"DEPOSIT", "WITHDRAW", "TRANSFER_OUT", "TRANSFER_IN"};
+	private static final int MONTHS_OF_HISTORY = 18;
+
+	@Autowired
+	private MonthlyRollupService rollupService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockBean
+	private AccountBalanceShards balanceShards;
+
+	private final YearMonth current = YearMonth.now();
+	private AppUser user;
+	private Account checking;
+	private Account sharded;
+
+	@BeforeEach
+	void seed() {
+		user = AppUser.builder().email("rollup@example.com").fullName("Rollup").passwordHash("hash").role(Role.USER).build();
+		entityManager.persist(user);
+		checking = account("Checking");
+		sharded = account("Payroll");
+
+		when(balanceShards.slotsOf(any())).thenAnswer(inv -> sharded.getId().equals(inv.getArgument(0)) ? 4 : 0);
+	}
+
+	private Account account(String name) {
+		Account account = Account.builder().user(user).name(name).type("CHECKING").balance(BigDecimal.ZERO).build();
+		entityManager.persist(account);
+		return account;
+	}
+
+	private List<PostedTransaction> randomLedger(int count) {
+		Random random = new Random(42);
+		List<PostedTransaction> rows = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			String type = TYPES[random.nextInt(TYPES.length)];
+			BigDecimal amount = BigDecimal.valueOf(random.nextInt(100_000) + 1, 2);
+			if (type.equals("WITHDRAW") || type.equals("TRANSFER_OUT")) {
+				amount = amount.negate();
+			}
+			LocalDateTime at = current.minusMonths(random.nextInt(MONTHS_OF_HISTORY)).atDay(1).atStartOfDay()
+					.plusMinutes(random.nextInt(28 * 24 * 60));
+
+			Transaction t = Transaction.builder()
+					.user(user)
+					.account(random.nextBoolean() ? checking : sharded)
+					.amount(amount)
+					.type(type)
+					.description("t" + i)
+					.createdAt(at)
+					.build();
+			entityManager.persist(t);
+			rows.add(PostedTransaction.of(t));
+		}
+		entityManager.flush();
+		return rows;
+	}
+
+	// The previous in-memory implementation over the full history
+	private List<MonthlySummaryResponse> bruteForce(List<PostedTransaction> rows, int months) {
+		List<MonthlySummaryResponse> result = new ArrayList<>();
+		for (int i = 0; i < months; i++) {
+			YearMonth month = current.minusMonths(i);
+			List<PostedTransaction> inMonth = rows.stream().filter(t -> YearMonth.from(t.getCreatedAt()).equals(month)).toList();
+			BigDecimal income = inMonth.stream().filter(t -> t.getType().equals("DEPOSIT"))
+					.map(PostedTransaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+			BigDecimal expense = inMonth.stream().filter(t -> t.getType().equals("WITHDRAW"))
+					.map(t -> t.getAmount().abs()).reduce(BigDecimal.ZERO, BigDecimal::add);
+			result.add(new MonthlySummaryResponse(month, income, expense, income.subtract(expense), inMonth.size()));
+		}
+		return result;
+	}
+
+	private void assertMatchesLedger(List<PostedTransaction> ledger) {
+		for (int months : new int[]{1, 6, 12, 24}) {
+			List<MonthlySummaryResponse> expected = bruteForce(ledger, months);
+			List<MonthlySummaryResponse> actual = rollupService.monthlySummary(user.getId(), months);
+
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				MonthlySummaryResponse e = expected.get(i);
+				MonthlySummaryResponse a = actual.get(i);
+				assertEquals(e.getMonth(), a.getMonth());
+				assertEquals(0, e.getIncome().compareTo(a.getIncome()), "income " + e.getMonth());
+				assertEquals(0, e.getExpense().compareTo(a.getExpense()), "expense " + e.getMonth());
+				assertEquals(0, e.getNetChange().compareTo(a.getNetChange()), "net " + e.getMonth());
+				assertEquals(e.getTransactionCount(), a.getTransactionCount(), "count " + e.getMonth());
+			}
+		}
+	}
+
+	@Test
+	void postedRollupMatchesTheLedger() {
+		List<PostedTransaction> ledger = randomLedger(1_000);
+
+		// Postings arrive in small groups; each group is one upsert batch
+		for (int i = 0; i < ledger.size(); i += 7) {
+			rollupService.onPosting(new PostingCommittedEvent(ledger.subList(i, Math.min(i + 7, ledger.size()))));
+		}
+
+		assertMatchesLedger(ledger);
+		Integer slotRows = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM user_monthly_rollup WHERE user_id = ? AND slot > 0", Integer.class, user.getId());
+		assertTrue(slotRows > 0);
+		assertEquals(0, rollupService.backfill());
+	}
+
+	@Test
+	void backfillRebuildsUsersMissingFromTheRollup() {
+		List<PostedTransaction> ledger = randomLedger(500);
+
+		assertEquals(1, rollupService.backfill());
+
+		assertMatchesLedger(ledger);
+		assertEquals(0, rollupService.backfill());
+	}
+}
@@ -0,0 +1,48 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonthlyRollupServiceTest {
+
+	@Test
+	void aggregatesOneDeltaPerUserMonthAndType() {
+		LocalDateTime march = LocalDateTime.of(2026, 3, 5, 10, 0);
+		Map<MonthlyRollupService.Key, MonthlyRollupService.Delta> deltas = MonthlyRollupService.aggregate(List.of(
+				new PostedTransaction(1L, 1L, 10L, 20L, "TRANSFER_OUT", new BigDecimal("-5.00"), "t", march),
+				new PostedTransaction(2L, 1L, 20L, 10L, "TRANSFER_IN", new BigDecimal("5.00"), "t", march),
+				new PostedTransaction(3L, 1L, 10L, null, "DEPOSIT", new BigDecimal("2.50"), "d", march),
+				new PostedTransaction(4L, 1L, 10L, null, "DEPOSIT", new BigDecimal("1.50"), "d", march.plusMonths(1))),
+				accountId -> 0);
+
+		assertEquals(4, deltas.size());
+		MonthlyRollupService.Delta deposits = deltas.get(new MonthlyRollupService.Key(1L, 202603, "DEPOSIT", 0));
+		assertEquals(250, deposits.amountCents);
+		assertEquals(1, deposits.count);
+	}
+
+	@Test
+	void rowsOnShardedAccountsGoToSlotsOneToN() {
+		LocalDateTime march = LocalDateTime.of(2026, 3, 5, 10, 0);
+		List<PostedTransaction> rows = new ArrayList<>();
+		for (long i = 0; i < 200; i++) {
+			rows.add(new PostedTransaction(i, 1L, i % 2 == 0 ? 10L : 20L, null, "DEPOSIT", BigDecimal.ONE, "d", march));
+		}
+
+		// Account 20 is sharded with 4 slots
+		Map<MonthlyRollupService.Key, MonthlyRollupService.Delta> deltas =
+				MonthlyRollupService.aggregate(rows, accountId -> accountId == 20L ? 4 : 0);
+
+		assertEquals(100, deltas.get(new MonthlyRollupService.Key(1L, 202603, "DEPOSIT", 0)).count);
+		assertEquals(100, deltas.entrySet().stream().filter(e -> e.getKey().slot() > 0)
+				.mapToLong(e -> e.getValue().count).sum());
+		assertTrue(deltas.keySet().stream().allMatch(k -> k.slot() >= 0 && k.slot() <= 4));
+		assertTrue(deltas.size() > 2);
+	}
+}
@@ -0,0 +1,37 @@
+package com.anudeep.bankingsystem.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingExecutorTest {
+
+	@Test
+	void classifiesMySqlDeadlockAndLockWaitTimeout() {
+		SQLException deadlock = new SQLException("Deadlock found", "40001", 1213);
+		SQLException lockWait = new SQLException("Lock wait timeout exceeded", "HY000", 1205);
+
+		assertEquals("deadlock", PostingExecutor.transientReason(new CannotAcquireLockException("x", deadlock)));
+		assertEquals("lock_timeout", PostingExecutor.transientReason(new CannotAcquireLockException("x", lockWait)));
+		assertEquals("serialization", PostingExecutor.transientReason(
+				new RuntimeException(new SQLException("x", "40001", 0))));
+	}
+
+	@Test
+	void classifiesOptimisticAndPessimisticFailures() {
+		assertEquals("optimistic", PostingExecutor.transientReason(
+				new ObjectOptimisticLockingFailureException(Object.class, 1L)));
+		assertEquals("pessimistic", PostingExecutor.transientReason(new CannotAcquireLockException("x")));
+	}
+
+	@Test
+	void permanentFailuresAreNotRetried() {
+		assertNull(PostingExecutor.transientReason(new DataIntegrityViolationException("duplicate")));
+		assertNull(PostingExecutor.transientReason(new IllegalStateException("boom")));
+	}
+}
@@ -0,0 +1,167 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.entity.Account;
+import com.anudeep.bankingsystem.entity.AppUser;
+import com.anudeep.bankingsystem.entity.Role;
+import com.anudeep.bankingsystem.event.PostingEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Transfers in both directions between a handful of accounts, half through
+ * the sequenced engine and half through the default executor at the same
+ * time. Without stripe locks on groups these deadlock; with them every
+ * posting commits in its group and no group is replayed.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
+		"spring.jpa.show-sql=false",
+		"app.posting.engine=sequenced",
+		"app.posting.sequenced.writers=4",
+		"app.posting.sequenced.group-size=32",
+		"app.posting.sequenced.submit-timeout-ms=60000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({SequencedPostingEngine.class, PostingExecutor.class, AccountLockManager.class, PostingEventPublisher.class,
+		SequencedPostingEngineMySqlTest.Metrics.class})
+class SequencedPostingEngineMySqlTest {
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0.36");
+
+	private static final int ACCOUNTS = 6;
+	private static final long OPENING_CENTS = 1_000_000;
+
+	@TestConfiguration
+	static class Metrics {
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	private SequencedPostingEngine engine;
+
+	@Autowired
+	private PostingExecutor postingExecutor;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final List<Long> accountIds = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			AppUser user = AppUser.builder().email("engine@example.com").fullName("Engine").passwordHash("hash").role(Role.USER).build();
+			entityManager.persist(user);
+			for (int i = 0; i < ACCOUNTS; i++) {
+				Account account = Account.builder().user(user).name("A" + i).type("CHECKING")
+						.balance(BigDecimal.valueOf(OPENING_CENTS, 2)).build();
+				entityManager.persist(account);
+				accountIds.add(account.getId());
+			}
+		});
+	}
+
+	@AfterEach
+	void clean() {
+		jdbcTemplate.update("DELETE FROM accounts");
+		jdbcTemplate.update("DELETE FROM users");
+	}
+
+	// Debit first, then credit: opposite transfers lock the same rows in opposite order
+	private Integer transfer(Long from, Long to) {
+		jdbcTemplate.update("UPDATE accounts SET balance = balance - 0.01 WHERE id = ?", from);
+		jdbcTemplate.update("UPDATE accounts SET balance = balance + 0.01 WHERE id = ?", to);
+		return 1;
+	}
+
+	private static double count(Counter counter) {
+		return counter != null ? counter.count() : 0;
+	}
+
+	@Test
+	void groupsAndSinglePostingsDoNotDeadlockEachOther() throws Exception {
+		int threads = 16;
+		int perThread = 150;
+		AtomicLongArray net = new AtomicLongArray(ACCOUNTS);
+		ExecutorService callers = Executors.newFixedThreadPool(threads);
+		List<Future<?>> done = new ArrayList<>();
+
+		for (int t = 0; t < threads; t++) {
+			boolean sequenced = t % 2 == 0;
+			Random random = new Random(t);
+			done.add(callers.submit(() -> {
+				for (int i = 0; i < perThread; i++) {
+					int from = random.nextInt(ACCOUNTS);
+					int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+					Long fromId = accountIds.get(from);
+					Long toId = accountIds.get(to);
+					if (sequenced) {
+						engine.submit(fromId, List.of(fromId, toId), () -> transfer(fromId, toId));
+					} else {
+						postingExecutor.execute(List.of(fromId, toId), () -> transfer(fromId, toId));
+					}
+					net.decrementAndGet(from);
+					net.incrementAndGet(to);
+				}
+			}));
+		}
+		for (Future<?> f : done) {
+			f.get(5, TimeUnit.MINUTES);
+		}
+		callers.shutdown();
+
+		for (int i = 0; i < ACCOUNTS; i++) {
+			BigDecimal balance = jdbcTemplate.queryForObject(
+					"SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountIds.get(i));
+			assertEquals(0, BigDecimal.valueOf(OPENING_CENTS + net.get(i), 2).compareTo(balance));
+		}
+		assertEquals(0, count(meterRegistry.find("posting.group.replayed").counter()));
+		assertEquals(0, count(meterRegistry.find("posting.retries").tag("reason", "deadlock").counter()));
+	}
+}
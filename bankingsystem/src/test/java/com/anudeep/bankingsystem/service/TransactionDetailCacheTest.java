@@ -0,0 +1,74 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.account.AccountResponse;
+import com.anudeep.bankingsystem.dto.transaction.TransactionDetailResponse;
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
+import com.anudeep.bankingsystem.event.LocalCacheInvalidationBus;
+import com.anudeep.bankingsystem.event.TransactionsRecategorizedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionDetailCacheTest {
+
+	private final TransactionDetailCache cache = new TransactionDetailCache(new LocalCacheInvalidationBus(),
+			new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry(), 1 << 20, 60);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	// Transaction 1 is user 1's transfer to user 3, transaction 2 is user 2's deposit
+	private TransactionDetailCache.Detail load(Long id) {
+		loads.incrementAndGet();
+		AccountResponse account = new AccountResponse(id * 10, "Main", "SAVINGS", BigDecimal.TEN);
+		AccountResponse related = id == 1L ? new AccountResponse(30L, "Rent", "CHECKING", BigDecimal.ONE) : null;
+		return new TransactionDetailCache.Detail(id, id == 1L ? 3L : null, new TransactionDetailResponse(id, account, related,
+				related != null ? "Landlord" : null, BigDecimal.ONE, id == 1L ? "TRANSFER_OUT" : "DEPOSIT",
+				null, null, "t", null, LocalDateTime.of(2024, 5, 1, 12, 0)));
+	}
+
+	@Test
+	void servesCopiesFromCache() {
+		cache.get(1L, this::load).response().setCategory("changed");
+		TransactionDetailCache.Detail detail = cache.get(1L, this::load);
+
+		assertEquals(1, loads.get());
+		assertNull(detail.response().getCategory());
+		assertEquals(3L, detail.relatedOwnerId());
+	}
+
+	@Test
+	void recategorizationDropsOnlyThatTransaction() {
+		cache.get(1L, this::load);
+		cache.get(2L, this::load);
+
+		cache.onRecategorized(new TransactionsRecategorizedEvent(Map.of(2L, "Food"), List.of(2L)));
+		cache.get(1L, this::load);
+		cache.get(2L, this::load);
+
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void accountChangesDropOnlyDetailsThatShowTheUser() {
+		cache.get(1L, this::load);
+		cache.get(2L, this::load);
+
+		// User 3 owns the related account of transaction 1 only
+		cache.onAccountsChanged(new AccountsChangedEvent(3L));
+		cache.get(1L, this::load);
+		cache.get(2L, this::load);
+		assertEquals(3, loads.get());
+
+		cache.onAccountsChanged(new AccountsChangedEvent(2L));
+		cache.get(1L, this::load);
+		cache.get(2L, this::load);
+		assertEquals(4, loads.get());
+	}
+}
@@ -0,0 +1,111 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.transaction.TransactionSearchEntry;
+import com.anudeep.bankingsystem.event.LocalCacheInvalidationBus;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionSearchIndexTest {
+
+	private TransactionSearchIndex.UserIndex index() {
+		TransactionSearchIndex.UserIndex index = new TransactionSearchIndex.UserIndex();
+		index.add(1L, "Starbucks coffee");
+		index.add(2L, "Coffee");
+		index.add(3L, "Grocery store");
+		index.add(4L, "Coffeehouse rent");
+		index.add(5L, "Decaf coffee beans");
+		return index;
+	}
+
+	@Test
+	void ranksExactThenWholeWordThenPrefixNewestFirst() {
+		TransactionSearchIndex.Hits hits = index().search("coffee", 0, 10);
+
+		assertEquals(4, hits.total());
+		assertEquals(List.of(2L, 5L, 1L, 4L), hits.ids());
+	}
+
+	@Test
+	void matchesSubstringsLikeTheSqlQuery() {
+		assertEquals(List.of(3L), index().search("ocer", 0, 10).ids());
+		assertEquals(0, index().search("tea", 0, 10).total());
+	}
+
+	@Test
+	void shortQueriesAndPaginationWork() {
+		TransactionSearchIndex.UserIndex index = index();
+
+		assertEquals(5, index.search("e", 0, 10).total());
+		assertEquals(List.of(1L, 4L), index.search("coffee", 1, 2).ids());
+	}
+
+	@Test
+	void ignoresDuplicateRows() {
+		TransactionSearchIndex.UserIndex index = index();
+		index.add(2L, "Coffee");
+
+		assertEquals(4, index.search("coffee", 0, 10).total());
+	}
+
+	@Test
+	void matchesWithoutAccentsOrCase() {
+		TransactionSearchIndex.UserIndex index = index();
+		index.add(6L, "CAFÉ Olé");
+
+		assertEquals(List.of(6L), index.search(TransactionSearchIndex.normalize("cafe"), 0, 10).ids());
+		assertEquals(List.of(6L), index.search(TransactionSearchIndex.normalize("Olé"), 0, 10).ids());
+	}
+
+	private static TransactionRepository repoWithRows(int rowsPerUser) {
+		TransactionRepository txnRepo = mock(TransactionRepository.class);
+		for (long userId = 1; userId <= 3; userId++) {
+			List<TransactionSearchEntry> rows = new ArrayList<>();
+			for (int i = 0; i < rowsPerUser; i++) {
+				rows.add(new TransactionSearchEntry(userId * 100 + i, "coffee " + i));
+			}
+			when(txnRepo.countByUserId(userId)).thenReturn(rowsPerUser);
+			when(txnRepo.findSearchEntriesByUserId(userId)).thenReturn(rows);
+		}
+		return txnRepo;
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedIndexesOverTheDocumentBudget() {
+		TransactionRepository txnRepo = repoWithRows(4);
+		TransactionSearchIndex searchIndex = new TransactionSearchIndex(txnRepo, new LocalCacheInvalidationBus(),
+				new SimpleMeterRegistry(), true, 100, 100, 10);
+
+		searchIndex.search(1L, "coffee", 0, 10);
+		searchIndex.search(2L, "coffee", 0, 10);
+		searchIndex.search(3L, "coffee", 0, 10);
+		searchIndex.search(2L, "coffee", 0, 10);
+		searchIndex.search(1L, "coffee", 0, 10);
+
+		// 12 documents exceed the budget of 10: user 1 was dropped for user 3, then rebuilt
+		verify(txnRepo, times(2)).findSearchEntriesByUserId(1L);
+		verify(txnRepo, times(1)).findSearchEntriesByUserId(2L);
+	}
+
+	@Test
+	void peersIndexRowsPostedOnAnotherInstance() {
+		LocalCacheInvalidationBus bus = new LocalCacheInvalidationBus();
+		TransactionSearchIndex local = new TransactionSearchIndex(repoWithRows(1), bus, new SimpleMeterRegistry(), true, 100, 100, 1000);
+		TransactionSearchIndex peer = new TransactionSearchIndex(repoWithRows(1), bus, new SimpleMeterRegistry(), true, 100, 100, 1000);
+		peer.search(1L, "coffee", 0, 10);
+
+		local.onPostingCommitted(new PostingCommittedEvent(List.of(
+				new PostedTransaction(500L, 1L, 10L, null, "DEPOSIT", BigDecimal.TEN, "Tea shop", null))));
+
+		assertEquals(List.of(500L), peer.search(1L, "tea", 0, 10).orElseThrow().ids());
+	}
+}
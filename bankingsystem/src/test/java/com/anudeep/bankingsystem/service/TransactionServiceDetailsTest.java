@@ -0,0 +1,55 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.account.AccountResponse;
+import com.anudeep.bankingsystem.dto.transaction.TransactionDetailResponse;
+import com.anudeep.bankingsystem.repository.AccountRepository;
+import com.anudeep.bankingsystem.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceDetailsTest {
+
+	@Mock
+	private TransactionRepository txnRepo;
+
+	@Mock
+	private AccountRepository accountRepo;
+
+	@Mock
+	private TransactionDetailCache detailCache;
+
+	@Mock
+	private AccountService accountService;
+
+	@InjectMocks
+	private TransactionService service;
+
+	@Test
+	void cachedDetailsTakeBalancesFromTheAccountListsWithoutQueries() {
+		TransactionDetailResponse response = new TransactionDetailResponse(5L,
+				new AccountResponse(10L, "Main", "SAVINGS", BigDecimal.TEN),
+				new AccountResponse(30L, "Rent", "CHECKING", BigDecimal.ONE),
+				"Landlord", new BigDecimal("-5"), "TRANSFER_OUT", null, null, "rent", null, LocalDateTime.now());
+		when(detailCache.get(eq(5L), any())).thenReturn(new TransactionDetailCache.Detail(1L, 3L, response));
+		when(accountService.listForUser(1L)).thenReturn(List.of(new AccountResponse(10L, "Main", "SAVINGS", new BigDecimal("25"))));
+		when(accountService.listForUser(3L)).thenReturn(List.of(new AccountResponse(30L, "Rent", "CHECKING", new BigDecimal("7"))));
+
+		TransactionDetailResponse detail = service.getTransactionDetails(1L, 5L);
+
+		assertEquals(new BigDecimal("25"), detail.getAccount().getBalance());
+		assertEquals(new BigDecimal("7"), detail.getRelatedAccount().getBalance());
+		verifyNoInteractions(txnRepo, accountRepo);
+	}
+}
@@ -0,0 +1,172 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.dto.PaginatedResponse;
+import com.anudeep.bankingsystem.dto.transaction.TransactionFilterRequest;
+import com.anudeep.bankingsystem.dto.transaction.TransactionResponse;
+import com.anudeep.bankingsystem.entity.Account;
+import com.anudeep.bankingsystem.entity.AppUser;
+import com.anudeep.bankingsystem.entity.Role;
+import com.anudeep.bankingsystem.entity.Transaction;
+import com.anudeep.bankingsystem.event.PostingEventPublisher;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the filter Specifications on H2 and checks the statements they
+ * produce: one bounded query per call, whatever the history size. Also
+ * checks that /search orders and matches the same way from either source.
+ */
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:filter;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.anudeep.bankingsystem.service.TransactionServiceFilterTest$RecordingInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TransactionService.class)
+class TransactionServiceFilterTest {
+
+	private static final int ROWS = TransactionService.MAX_FILTER_RESULTS + 40;
+	private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+	public static class RecordingInspector implements StatementInspector {
+		static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			SQL.add(sql.toLowerCase(Locale.ROOT));
+			return sql;
+		}
+	}
+
+	@Autowired
+	private TransactionService service;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockBean private OutboxService outboxService;
+	@MockBean private PostingExecutor postingExecutor;
+	@MockBean private AccountBalanceShards balanceShards;
+	@MockBean private SequencedPostingEngine sequencedEngine;
+	@MockBean private IdempotencyService idempotencyService;
+	@MockBean private TransactionSearchIndex searchIndex;
+	@MockBean private TransactionDetailCache detailCache;
+	@MockBean private AccountService accountService;
+	@MockBean private PostingEventPublisher eventPublisher;
+
+	private Statistics statistics;
+	private Long userId;
+
+	@BeforeEach
+	void seed() {
+		AppUser user = AppUser.builder().email("filter@example.com").fullName("Filter").passwordHash("hash").role(Role.USER).build();
+		entityManager.persist(user);
+		Account account = Account.builder().user(user).name("Checking").type("CHECKING").balance(BigDecimal.ZERO).build();
+		entityManager.persist(account);
+
+		for (int i = 0; i < ROWS; i++) {
+			boolean deposit = i % 2 == 0;
+			entityManager.persist(Transaction.builder()
+					.user(user)
+					.account(account)
+					.amount(new BigDecimal(deposit ? "10.00" : "-5.00"))
+					.type(deposit ? "DEPOSIT" : "WITHDRAW")
+					.description("row " + i)
+					.createdAt(START.plusMinutes(i))
+					.build());
+		}
+		entityManager.flush();
+		entityManager.clear();
+		userId = user.getId();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		RecordingInspector.SQL.clear();
+	}
+
+	private static void assertOneBoundedSelect() {
+		assertEquals(1, RecordingInspector.SQL.size());
+		String sql = RecordingInspector.SQL.get(0);
+		assertTrue(sql.contains("user_id"), sql);
+		assertTrue(sql.contains("order by"), sql);
+		assertTrue(sql.contains("fetch first") || sql.contains(" limit "), sql);
+	}
+
+	@Test
+	void emptyFilterReturnsOnlyTheNewestMatches() {
+		List<TransactionResponse> rows = service.filterTransactions(userId, new TransactionFilterRequest());
+
+		assertEquals(TransactionService.MAX_FILTER_RESULTS, rows.size());
+		assertEquals(START.plusMinutes(ROWS - 1), rows.get(0).getCreatedAt());
+		assertEquals(TransactionService.MAX_FILTER_RESULTS, statistics.getEntityLoadCount());
+		assertOneBoundedSelect();
+	}
+
+	@Test
+	void cursorFilterReadsOneRowMoreThanThePage() {
+		TransactionFilterRequest deposits = new TransactionFilterRequest();
+		deposits.setType("DEPOSIT");
+
+		PaginatedResponse<TransactionResponse> page = service.filterTransactionsByCursor(userId, deposits, null, 20);
+
+		assertEquals(20, page.getContent().size());
+		assertTrue(page.isHasNext());
+		assertTrue(page.getContent().stream().allMatch(r -> r.getType().equals("DEPOSIT")));
+		assertEquals(21, statistics.getEntityLoadCount());
+		assertOneBoundedSelect();
+		String sql = RecordingInspector.SQL.get(0);
+		assertTrue(sql.substring(sql.indexOf(" where ")).contains("type"), sql);
+	}
+
+	@Test
+	void searchFallbackMatchesWildcardsLiterally() {
+		assertEquals(List.of(), service.searchTransactions(userId, "row_1"));
+		assertEquals(List.of(), service.searchTransactions(userId, "row%1"));
+
+		List<TransactionResponse> rows = service.searchTransactions(userId, "row 53");
+		assertEquals(List.of("row 539", "row 538", "row 537", "row 536", "row 535", "row 534", "row 533", "row 532",
+				"row 531", "row 530", "row 53"), rows.stream().map(TransactionResponse::getDescription).toList());
+	}
+
+	@Test
+	void searchServedFromTheIndexIsNewestFirstToo() {
+		List<Long> oldestFirst = entityManager
+				.createQuery("SELECT t.id FROM Transaction t WHERE t.description IN ('row 1', 'row 2', 'row 3') ORDER BY t.createdAt", Long.class)
+				.getResultList();
+		when(searchIndex.search(eq(userId), eq("row"), anyInt(), anyInt()))
+				.thenReturn(Optional.of(new TransactionSearchIndex.Hits(oldestFirst, oldestFirst.size())));
+
+		List<TransactionResponse> rows = service.searchTransactions(userId, "row");
+
+		assertEquals(List.of("row 3", "row 2", "row 1"), rows.stream().map(TransactionResponse::getDescription).toList());
+	}
+}
@@ -0,0 +1,77 @@
+package com.anudeep.bankingsystem.service;
+
+import com.anudeep.bankingsystem.event.AccountsChangedEvent;
+import com.anudeep.bankingsystem.event.LocalCacheInvalidationBus;
+import com.anudeep.bankingsystem.event.PostedTransaction;
+import com.anudeep.bankingsystem.event.PostingCommittedEvent;
+import com.anudeep.bankingsystem.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserDataVersionsTest {
+
+	private final AccountRepository accountRepo = mock(AccountRepository.class);
+	private final UserDataVersions versions = new UserDataVersions(accountRepo, new LocalCacheInvalidationBus(), 100, 100);
+
+	@Test
+	void transferChangesTheRecipientsTagToo() {
+		when(accountRepo.findOwnerIdById(10L)).thenReturn(Optional.of(1L));
+		when(accountRepo.findOwnerIdById(20L)).thenReturn(Optional.of(2L));
+		String sender = versions.etag(1L);
+		String recipient = versions.etag(2L);
+		String bystander = versions.etag(3L);
+
+		versions.onPostingCommitted(new PostingCommittedEvent(List.of(
+				new PostedTransaction(1L, 1L, 10L, 20L, "TRANSFER_OUT", BigDecimal.ONE.negate(), "t", null))));
+
+		assertNotEquals(sender, versions.etag(1L));
+		assertNotEquals(recipient, versions.etag(2L));
+		assertEquals(bystander, versions.etag(3L));
+	}
+
+	@Test
+	void accountChangesBumpTheOwner() {
+		String before = versions.etag(1L);
+
+		versions.onAccountsChanged(new AccountsChangedEvent(1L));
+
+		assertNotEquals(before, versions.etag(1L));
+	}
+
+	@Test
+	void tagsFromAnotherInstanceNeverMatch() {
+		UserDataVersions other = new UserDataVersions(accountRepo, new LocalCacheInvalidationBus(), 100, 100);
+
+		assertNotEquals(versions.etag(1L), other.etag(1L));
+	}
+
+	@Test
+	void evictedUsersNeverGetAnEarlierTagBack() {
+		UserDataVersions small = new UserDataVersions(accountRepo, new LocalCacheInvalidationBus(), 100, 2);
+		Map<Long, List<String>> seen = new HashMap<>();
+
+		for (int round = 0; round < 30; round++) {
+			for (long userId = 1; userId <= 10; userId++) {
+				List<String> tags = seen.computeIfAbsent(userId, id -> new ArrayList<>());
+				String tag = small.etag(userId);
+				if (!tags.isEmpty() && !tags.get(tags.size() - 1).equals(tag)) {
+					// A tag the user moved away from must not come back, evicted or not
+					assertFalse(tags.contains(tag), tag);
+				}
+				tags.add(tag);
+				if (round % 3 == 0) {
+					small.bump(userId);
+				}
+			}
+		}
+	}
+}
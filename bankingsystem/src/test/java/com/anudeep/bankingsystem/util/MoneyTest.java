@@ -0,0 +1,36 @@
+package com.anudeep.bankingsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+	@Test
+	void convertsToAndFromBigDecimalExactly() {
+		assertEquals(-123456, Money.cents(new BigDecimal("-1234.56")));
+		assertEquals(500, Money.cents(new BigDecimal("5")));
+		assertEquals(new BigDecimal("12.30"), Money.toBigDecimal(Money.cents(new BigDecimal("12.3"))));
+		assertThrows(ArithmeticException.class, () -> Money.cents(new BigDecimal("0.001")));
+	}
+
+	@Test
+	void arithmeticIsOverflowChecked() {
+		assertEquals(150, Money.add(100, 50));
+		assertEquals(-50, Money.subtract(100, 150));
+		assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+		assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+	}
+
+	@Test
+	void fitsOnlyAmountsThatConvertToCents() {
+		assertTrue(Money.fits(new BigDecimal("92233720368547758.07")));
+		assertTrue(Money.fits(new BigDecimal("-0.10")));
+		assertFalse(Money.fits(new BigDecimal("92233720368547758.08")));
+		assertFalse(Money.fits(new BigDecimal("1E+20")));
+		assertFalse(Money.fits(new BigDecimal("0.001")));
+		assertEquals(Long.MAX_VALUE, Money.cents(Money.MAX));
+	}
+}
@@ -0,0 +1,31 @@
+package com.anudeep.bankingsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeTest {
+
+	@Test
+	void idsAreStrictlyIncreasingAndJsSafe() {
+		long previous = Snowflake.nextId();
+		for (int i = 0; i < 100_000; i++) {
+			long id = Snowflake.nextId();
+			assertTrue(id > previous);
+			assertTrue(id < (1L << 53));
+			previous = id;
+		}
+	}
+
+	@Test
+	void timestampRoundTrips() {
+		long before = System.currentTimeMillis();
+		long id = Snowflake.nextId();
+		assertTrue(Snowflake.timestampOf(id) >= before - 1);
+	}
+
+	@Test
+	void rejectsOutOfRangeNodeId() {
+		assertThrows(IllegalArgumentException.class, () -> Snowflake.configure(Snowflake.MAX_NODE_ID + 1));
+	}
+}
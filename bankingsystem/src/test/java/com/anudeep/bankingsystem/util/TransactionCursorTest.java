@@ -0,0 +1,27 @@
+package com.anudeep.bankingsystem.util;
+
+import com.anudeep.bankingsystem.exception.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCursorTest {
+
+	@Test
+	void roundTripsThroughOpaqueToken() {
+		TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000), 987654321L);
+
+		String token = cursor.encode();
+
+		assertFalse(token.contains("|"));
+		assertEquals(cursor, TransactionCursor.decode(token));
+	}
+
+	@Test
+	void rejectsMalformedTokens() {
+		assertThrows(ApiException.class, () -> TransactionCursor.decode("not a cursor"));
+		assertThrows(ApiException.class, () -> TransactionCursor.decode("bm8tc2VwYXJhdG9y"));
+	}
+}